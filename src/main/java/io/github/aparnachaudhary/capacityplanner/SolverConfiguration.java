@@ -0,0 +1,41 @@
+package io.github.aparnachaudhary.capacityplanner;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class SolverConfiguration {
+
+    /**
+     * Parses the solver config once, every solver is built from this factory.
+     * Do not change its solver config afterwards, clone the factory instead.
+     */
+    @Bean
+    public SolverFactory<ClusterBalance> solverFactory(
+            @Value("${capacityplanner.solver.config:solver/capacity-planning-solver-config.xml}") String solverConfig,
+            @Value("${capacityplanner.solver.move-thread-count:}") String moveThreadCount) {
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource(solverConfig);
+        if (!moveThreadCount.isEmpty()) {
+            solverFactory.getSolverConfig().setMoveThreadCount(moveThreadCount);
+        }
+        return solverFactory;
+    }
+
+    /**
+     * Computes and sends the assignment diffs of every solver, off the solver threads.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService assignmentDiffPublisherExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AssignmentDiffPublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
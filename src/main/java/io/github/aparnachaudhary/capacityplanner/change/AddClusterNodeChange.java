@@ -0,0 +1,48 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ResourceVector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds a cluster node, available to the processes of its AZ and node type.
+ */
+public class AddClusterNodeChange implements ProblemFactChange<ClusterBalance> {
+
+    private final ClusterNode clusterNode;
+
+    public AddClusterNodeChange(ClusterNode clusterNode) {
+        this.clusterNode = clusterNode;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ClusterBalance> scoreDirector) {
+
+        ClusterBalance clusterBalance = scoreDirector.getWorkingSolution();
+        // Never change a node that is shared with the best solution clones, so add a new instance
+        ClusterNode workingClusterNode = ClusterNode.builder()
+                .id(clusterNode.getId())
+                .name(clusterNode.getName())
+                .capacity(ResourceVector.orEmpty(clusterNode.getCapacity()))
+                .cost(clusterNode.getCost())
+                .availabilityZone(clusterBalance.lookUpAvailabilityZone(clusterNode.getAvailabilityZone()))
+                .clusterNodeType(clusterBalance.lookUpNodeType(clusterNode.getClusterNodeType()))
+                .build();
+
+        scoreDirector.beforeProblemFactAdded(workingClusterNode);
+        // A new list: the problem fact list is shared with the best solution clones
+        List<ClusterNode> clusterNodes = new ArrayList<>(clusterBalance.getClusterNodes());
+        clusterNodes.add(workingClusterNode);
+        clusterBalance.setClusterNodes(clusterNodes);
+        clusterBalance.initializeAddedClusterNodeIndex(workingClusterNode);
+        clusterBalance.initializeCompatibleClusterNodes();
+        scoreDirector.afterProblemFactAdded(workingClusterNode);
+        ResourceCapacityChanges.replaceResourceCapacities(scoreDirector);
+        scoreDirector.triggerVariableListeners();
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.domain.ResourceVector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deploys a new, unassigned process; the solver assigns it while it keeps the rest of the best solution.
+ */
+public class AddClusterProcessChange implements ProblemFactChange<ClusterBalance> {
+
+    private final ClusterProcess process;
+
+    public AddClusterProcessChange(ClusterProcess process) {
+        this.process = process;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ClusterBalance> scoreDirector) {
+
+        ClusterBalance clusterBalance = scoreDirector.getWorkingSolution();
+        ClusterProcess workingProcess = process.toBuilder()
+                .usage(ResourceVector.orEmpty(process.getUsage()))
+                .availabilityZone(clusterBalance.lookUpAvailabilityZone(process.getAvailabilityZone()))
+                .clusterNodeType(clusterBalance.lookUpNodeType(process.getClusterNodeType()))
+                .clusterNode(null)
+                // Not running yet, so assigning it is no migration
+                .originalClusterNode(null)
+                // Pin it once it is assigned, a pinned unassigned process would never be assigned
+                .pinned(false)
+                .build();
+
+        scoreDirector.beforeEntityAdded(workingProcess);
+        // A new list: the old one may still be referenced by a best solution clone
+        List<ClusterProcess> processes = new ArrayList<>(clusterBalance.getClusterProcesses());
+        processes.add(workingProcess);
+        clusterBalance.setClusterProcesses(processes);
+        clusterBalance.initializeCompatibleClusterNodes();
+        scoreDirector.afterEntityAdded(workingProcess);
+        scoreDirector.triggerVariableListeners();
+    }
+}
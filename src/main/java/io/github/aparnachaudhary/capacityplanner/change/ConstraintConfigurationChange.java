@@ -0,0 +1,30 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalanceConstraintConfiguration;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+/**
+ * Replaces the constraint weights, the solver continues from its best solution with the new weights.
+ * The incremental and easy score calculators read the weights on every reset or score;
+ * a scoreDrl or constraint stream score director only reads them when the working solution is set.
+ */
+public class ConstraintConfigurationChange implements ProblemFactChange<ClusterBalance> {
+
+    private final ClusterBalanceConstraintConfiguration constraintConfiguration;
+
+    public ConstraintConfigurationChange(ClusterBalanceConstraintConfiguration constraintConfiguration) {
+        this.constraintConfiguration = constraintConfiguration;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ClusterBalance> scoreDirector) {
+
+        // Deep cloned, so the earlier best solutions keep their own weights
+        ClusterBalanceConstraintConfiguration workingConstraintConfiguration = scoreDirector.getWorkingSolution().getConstraintConfiguration();
+        scoreDirector.beforeProblemPropertyChanged(workingConstraintConfiguration);
+        workingConstraintConfiguration.copyFrom(constraintConfiguration);
+        scoreDirector.afterProblemPropertyChanged(workingConstraintConfiguration);
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+
+/**
+ * Pins a process to its current cluster node, so the solver no longer moves it, or unpins it again;
+ * does nothing if the process is already gone.
+ */
+public class PinClusterProcessChange implements ProblemFactChange<ClusterBalance> {
+
+    private final ClusterProcess process;
+    private final boolean pinned;
+
+    public PinClusterProcessChange(ClusterProcess process, boolean pinned) {
+        this.process = process;
+        this.pinned = pinned;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ClusterBalance> scoreDirector) {
+
+        ClusterProcess workingProcess = scoreDirector.lookUpWorkingObjectOrReturnNull(process);
+        if (workingProcess == null || workingProcess.isPinned() == pinned) {
+            return;
+        }
+        ClusterBalance clusterBalance = scoreDirector.getWorkingSolution();
+        scoreDirector.beforeProblemPropertyChanged(workingProcess);
+        workingProcess.setPinned(pinned);
+        // A new list, so the move factories rebuild their list of processes that are not pinned
+        clusterBalance.setClusterProcesses(new ArrayList<>(clusterBalance.getClusterProcesses()));
+        scoreDirector.afterProblemPropertyChanged(workingProcess);
+        scoreDirector.triggerVariableListeners();
+    }
+}
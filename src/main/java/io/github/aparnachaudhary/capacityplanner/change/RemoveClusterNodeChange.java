@@ -0,0 +1,64 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains a cluster node: its processes become unassigned (and unpinned), so the solver moves them to other nodes.
+ * Does nothing if the node is already gone.
+ */
+public class RemoveClusterNodeChange implements ProblemFactChange<ClusterBalance> {
+
+    private final ClusterNode clusterNode;
+
+    public RemoveClusterNodeChange(ClusterNode clusterNode) {
+        this.clusterNode = clusterNode;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ClusterBalance> scoreDirector) {
+
+        ClusterNode workingClusterNode = scoreDirector.lookUpWorkingObjectOrReturnNull(clusterNode);
+        if (workingClusterNode == null) {
+            return;
+        }
+        ClusterBalance clusterBalance = scoreDirector.getWorkingSolution();
+
+        for (ClusterProcess process : clusterBalance.getClusterProcesses()) {
+            if (process.getOriginalClusterNode() == workingClusterNode) {
+                // Moving it is forced, not a migration the plan chooses
+                scoreDirector.beforeProblemPropertyChanged(process);
+                process.setOriginalClusterNode(null);
+                scoreDirector.afterProblemPropertyChanged(process);
+            }
+            if (process.getClusterNode() == workingClusterNode) {
+                scoreDirector.beforeVariableChanged(process, "clusterNode");
+                process.setClusterNode(null);
+                scoreDirector.afterVariableChanged(process, "clusterNode");
+                if (process.isPinned()) {
+                    // Otherwise it would never be reassigned
+                    scoreDirector.beforeProblemPropertyChanged(process);
+                    process.setPinned(false);
+                    scoreDirector.afterProblemPropertyChanged(process);
+                }
+            }
+        }
+
+        scoreDirector.beforeProblemFactRemoved(workingClusterNode);
+        // A new list: the problem fact list is shared with the best solution clones
+        List<ClusterNode> clusterNodes = new ArrayList<>(clusterBalance.getClusterNodes());
+        clusterNodes.remove(workingClusterNode);
+        clusterBalance.setClusterNodes(clusterNodes);
+        // The other nodes keep their index, see ClusterBalance.initializeAddedClusterNodeIndex()
+        clusterBalance.initializeCompatibleClusterNodes();
+        scoreDirector.afterProblemFactRemoved(workingClusterNode);
+        ResourceCapacityChanges.replaceResourceCapacities(scoreDirector);
+        scoreDirector.triggerVariableListeners();
+    }
+}
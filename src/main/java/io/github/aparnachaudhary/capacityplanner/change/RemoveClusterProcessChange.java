@@ -0,0 +1,39 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Undeploys a process; does nothing if it is already gone.
+ */
+public class RemoveClusterProcessChange implements ProblemFactChange<ClusterBalance> {
+
+    private final ClusterProcess process;
+
+    public RemoveClusterProcessChange(ClusterProcess process) {
+        this.process = process;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ClusterBalance> scoreDirector) {
+
+        ClusterProcess workingProcess = scoreDirector.lookUpWorkingObjectOrReturnNull(process);
+        if (workingProcess == null) {
+            return;
+        }
+        ClusterBalance clusterBalance = scoreDirector.getWorkingSolution();
+
+        scoreDirector.beforeEntityRemoved(workingProcess);
+        // A new list: the old one may still be referenced by a best solution clone
+        List<ClusterProcess> processes = new ArrayList<>(clusterBalance.getClusterProcesses());
+        processes.remove(workingProcess);
+        clusterBalance.setClusterProcesses(processes);
+        scoreDirector.afterEntityRemoved(workingProcess);
+        scoreDirector.triggerVariableListeners();
+    }
+}
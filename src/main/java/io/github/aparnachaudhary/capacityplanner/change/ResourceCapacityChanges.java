@@ -0,0 +1,29 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ResourceCapacity;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.List;
+
+final class ResourceCapacityChanges {
+
+    private ResourceCapacityChanges() {
+    }
+
+    /**
+     * Replaces the {@link ResourceCapacity} facts of the working solution by new ones for its current cluster nodes,
+     * after a cluster node was added or removed. The old ones stay unchanged for the best solution clones.
+     */
+    static void replaceResourceCapacities(ScoreDirector<ClusterBalance> scoreDirector) {
+        ClusterBalance clusterBalance = scoreDirector.getWorkingSolution();
+        List<ResourceCapacity> oldResourceCapacities = clusterBalance.getResourceCapacities();
+        List<ResourceCapacity> newResourceCapacities = clusterBalance.createResourceCapacities();
+
+        oldResourceCapacities.forEach(scoreDirector::beforeProblemFactRemoved);
+        newResourceCapacities.forEach(scoreDirector::beforeProblemFactAdded);
+        clusterBalance.setResourceCapacities(newResourceCapacities);
+        oldResourceCapacities.forEach(scoreDirector::afterProblemFactRemoved);
+        newResourceCapacities.forEach(scoreDirector::afterProblemFactAdded);
+    }
+}
@@ -3,7 +3,6 @@ package io.github.aparnachaudhary.capacityplanner.domain;
 import lombok.Builder;
 import lombok.Data;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
-import org.optaplanner.core.api.domain.solution.cloner.DeepPlanningClone;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -11,7 +10,6 @@ import javax.persistence.Transient;
 import java.util.List;
 
 @Entity
-@DeepPlanningClone
 @Data
 @Builder
 public class AvailabilityZone {
@@ -22,9 +20,37 @@ public class AvailabilityZone {
 
     private String name;
 
+    /**
+     * Position in {@link ClusterBalance#getAvailabilityZones()}, see {@link ClusterBalance#initializeIndices()}.
+     */
+    @Transient
+    private int index;
+
     @Transient
     private List<ClusterNode> clusterNodes;
 
+    /**
+     * By id: a key in the per-AZ maps of the score calculation, hashing the name and the cluster nodes made every lookup
+     * walk the whole list. Without an id an AZ is only equal to itself.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AvailabilityZone)) {
+            return false;
+        }
+        // getId(), a lazy JPA reference is a subclass without the fields
+        Long otherId = ((AvailabilityZone) o).getId();
+        return id != null && id.equals(otherId);
+    }
+
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : Long.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return "AZ - " + name;
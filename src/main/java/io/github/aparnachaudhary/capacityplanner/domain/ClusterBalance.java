@@ -1,21 +1,27 @@
 package io.github.aparnachaudhary.capacityplanner.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Data;
-import org.apache.commons.lang3.builder.CompareToBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+import org.optaplanner.core.api.domain.constraintweight.ConstraintConfigurationProvider;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
 import org.optaplanner.core.api.domain.solution.PlanningScore;
 import org.optaplanner.core.api.domain.solution.PlanningSolution;
 import org.optaplanner.core.api.domain.solution.drools.ProblemFactCollectionProperty;
-import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
-import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
 
 import javax.persistence.Id;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @PlanningSolution
@@ -23,27 +29,43 @@ import java.util.stream.Collectors;
 @Builder
 public class ClusterBalance implements Serializable, Comparable<ClusterBalance> {
 
+    private static final Comparator<Long> ID_COMPARATOR = Comparator.nullsFirst(Comparator.naturalOrder());
+
     @PlanningId
     @Id
     protected Long id;
 
+    // Calculated by the solver, ignored in a submitted problem
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @PlanningScore
-    protected HardMediumSoftScore score;
+    protected HardMediumSoftLongScore score;
 
     @ProblemFactCollectionProperty
-    @ValueRangeProvider(id = "clusterNodeProvider")
     private List<ClusterNode> clusterNodes;
 
     @PlanningEntityCollectionProperty
     private List<ClusterProcess> clusterProcesses;
-    private List<AvailabilityZone> availabilityZones;
-    private List<ClusterNodeType> nodeTypes;
+    // Facts for the AZ and node type capacity rules
+    @ProblemFactCollectionProperty
+    @Builder.Default
+    private List<AvailabilityZone> availabilityZones = new ArrayList<>();
+    @ProblemFactCollectionProperty
+    @Builder.Default
+    private List<ClusterNodeType> nodeTypes = new ArrayList<>();
+    // Derived from the cluster nodes, see initializeResourceCapacity()
+    @ProblemFactCollectionProperty
+    @JsonIgnore
+    @Builder.Default
+    private List<ResourceCapacity> resourceCapacities = new ArrayList<>();
 
+    // Missing in a submitted problem means the default weights, see resolveReferences()
+    @ConstraintConfigurationProvider
+    @Builder.Default
+    private ClusterBalanceConstraintConfiguration constraintConfiguration = new ClusterBalanceConstraintConfiguration();
 
     @Override
     public int compareTo(ClusterBalance o) {
-        return new CompareToBuilder().append(getClass().getName(), o.getClass().getName())
-                .append(id, o.id).toComparison();
+        return ID_COMPARATOR.compare(id, o.id);
     }
 
     @Override
@@ -51,44 +73,178 @@ public class ClusterBalance implements Serializable, Comparable<ClusterBalance>
         return getClass().getName().replaceAll(".*\\.", "") + "-" + id;
     }
 
-    public ClusterUtilization getResourceCapacity() {
-
-        Map<AvailabilityZone, ResourceCapacity> azResourceCapacityMap = availabilityZones.stream()
-                .collect(Collectors.toMap(availabilityZone -> availabilityZone, availabilityZone -> ResourceCapacity.builder().build(), (a, b) -> a));
-        Map<AvailabilityZone, ResourceUsage> azCpuUsageMap = availabilityZones.stream()
-                .collect(Collectors.toMap(availabilityZone -> availabilityZone, availabilityZone -> ResourceUsage.builder().build(), (a, b) -> a));
+    /**
+     * @param availabilityZone only its id matters, for example one deserialized from a REST request
+     * @return the instance in {@link #getAvailabilityZones()} with the same id, never null
+     * @throws IllegalArgumentException if there is no such {@link AvailabilityZone}
+     */
+    public AvailabilityZone lookUpAvailabilityZone(AvailabilityZone availabilityZone) {
+        return availabilityZones.stream()
+                .filter(candidate -> availabilityZone != null && candidate.getId().equals(availabilityZone.getId()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The availabilityZone (" + availabilityZone + ") does not exist."));
+    }
 
-        Map<ClusterNodeType, ResourceCapacity> nodeTypeResourceCapacityMap = nodeTypes.stream()
-                .collect(Collectors.toMap(nodeType -> nodeType, nodeType -> ResourceCapacity.builder().build(), (a, b) -> a));
-        Map<ClusterNodeType, ResourceUsage> nodeTypeResourceUsageMap = nodeTypes.stream()
-                .collect(Collectors.toMap(nodeType -> nodeType, nodeType -> ResourceUsage.builder().build(), (a, b) -> a));
+    /**
+     * @param nodeType only its id matters, for example one deserialized from a REST request
+     * @return the instance in {@link #getNodeTypes()} with the same id, never null
+     * @throws IllegalArgumentException if there is no such {@link ClusterNodeType}
+     */
+    public ClusterNodeType lookUpNodeType(ClusterNodeType nodeType) {
+        return nodeTypes.stream()
+                .filter(candidate -> nodeType != null && candidate.getId().equals(nodeType.getId()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The clusterNodeType (" + nodeType + ") does not exist."));
+    }
 
-        Map<ClusterNode, ResourceUsage> nodeResourceUsageMap = new HashMap<>(clusterNodes.size());
+    /**
+     * Replaces every reference from a cluster node or process to an {@link AvailabilityZone}, {@link ClusterNodeType}
+     * or (original) {@link ClusterNode} by the instance with the same id in this solution's lists,
+     * for example after JSON deserialization where every reference is a copy of its own.
+     * A missing resource vector becomes {@link ResourceVector#empty()}, missing constraint weights the defaults.
+     *
+     * @throws IllegalArgumentException if a referenced id does not exist or a constraint weight is null
+     */
+    public void resolveReferences() {
+
+        if (constraintConfiguration == null) {
+            constraintConfiguration = new ClusterBalanceConstraintConfiguration();
+        }
+        constraintConfiguration.validate();
+
+        Map<Long, AvailabilityZone> availabilityZoneMap = availabilityZones.stream()
+                .collect(Collectors.toMap(AvailabilityZone::getId, Function.identity()));
+        Map<Long, ClusterNodeType> nodeTypeMap = nodeTypes.stream()
+                .collect(Collectors.toMap(ClusterNodeType::getId, Function.identity()));
+        Map<Long, ClusterNode> clusterNodeMap = clusterNodes.stream()
+                .collect(Collectors.toMap(ClusterNode::getId, Function.identity()));
 
         clusterNodes.forEach(clusterNode -> {
+            clusterNode.setCapacity(ResourceVector.orEmpty(clusterNode.getCapacity()));
+            clusterNode.setAvailabilityZone(resolveReference(availabilityZoneMap, clusterNode.getAvailabilityZone(), AvailabilityZone::getId, clusterNode));
+            clusterNode.setClusterNodeType(resolveReference(nodeTypeMap, clusterNode.getClusterNodeType(), ClusterNodeType::getId, clusterNode));
+        });
+        clusterProcesses.forEach(process -> {
+            process.setUsage(ResourceVector.orEmpty(process.getUsage()));
+            process.setAvailabilityZone(resolveReference(availabilityZoneMap, process.getAvailabilityZone(), AvailabilityZone::getId, process));
+            process.setClusterNodeType(resolveReference(nodeTypeMap, process.getClusterNodeType(), ClusterNodeType::getId, process));
+            if (process.getClusterNode() != null) {
+                process.setClusterNode(resolveReference(clusterNodeMap, process.getClusterNode(), ClusterNode::getId, process));
+            }
+            if (process.getOriginalClusterNode() != null) {
+                process.setOriginalClusterNode(resolveReference(clusterNodeMap, process.getOriginalClusterNode(), ClusterNode::getId, process));
+            }
+        });
+    }
+
+    private static <T> T resolveReference(Map<Long, T> map, T reference, Function<T, Long> idFunction, Object referencedBy) {
+        T resolved = reference == null ? null : map.get(idFunction.apply(reference));
+        if (resolved == null) {
+            throw new IllegalArgumentException("The reference (" + reference + ") of (" + referencedBy + ") does not exist.");
+        }
+        return resolved;
+    }
+
+    /**
+     * Initializes everything derived from the problem facts of a new problem.
+     * A problem fact change updates it piecemeal instead, see {@link #initializeAddedClusterNodeIndex(ClusterNode)}.
+     */
+    public void initializeDerivedData() {
+        initializeIndices();
+        initializeResourceCapacity();
+        initializeCompatibleClusterNodes();
+    }
 
-            ResourceCapacity azResourceCapacity = azResourceCapacityMap.get(clusterNode.getAvailabilityZone());
-            azResourceCapacity.setCpuCapacity(azResourceCapacity.getCpuCapacity() + clusterNode.getCpu());
-            azResourceCapacity.setMemoryCapacity(azResourceCapacity.getMemoryCapacity() + clusterNode.getMemory());
-            azResourceCapacity.setDiskCapacity(azResourceCapacity.getDiskCapacity() + clusterNode.getDisk());
-            azResourceCapacityMap.put(clusterNode.getAvailabilityZone(), azResourceCapacity);
+    /**
+     * Numbers the cluster nodes, availability zones and node types by their position in their list,
+     * so {@link ClusterUtilization} can keep their capacity and usage in arrays.
+     */
+    public void initializeIndices() {
+
+        Map<AvailabilityZone, Integer> azIndexMap = new HashMap<>(availabilityZones.size());
+        for (int i = 0; i < availabilityZones.size(); i++) {
+            availabilityZones.get(i).setIndex(i);
+            azIndexMap.put(availabilityZones.get(i), i);
+        }
+        Map<ClusterNodeType, Integer> nodeTypeIndexMap = new HashMap<>(nodeTypes.size());
+        for (int i = 0; i < nodeTypes.size(); i++) {
+            nodeTypes.get(i).setIndex(i);
+            nodeTypeIndexMap.put(nodeTypes.get(i), i);
+        }
+        for (int i = 0; i < clusterNodes.size(); i++) {
+            ClusterNode clusterNode = clusterNodes.get(i);
+            clusterNode.setIndex(i);
+            // The node may reference an equal, but not the same, AvailabilityZone instance
+            clusterNode.getAvailabilityZone().setIndex(azIndexMap.get(clusterNode.getAvailabilityZone()));
+            clusterNode.getClusterNodeType().setIndex(nodeTypeIndexMap.get(clusterNode.getClusterNodeType()));
+        }
+    }
+
+    /**
+     * Sums the cluster node capacity per {@link AvailabilityZone} and {@link ClusterNodeType} into new
+     * {@link #getResourceCapacities()}, so score rules that only see a single fact (constraint streams, DRL) can check
+     * the aggregate capacity. Call again after adding or removing cluster nodes.
+     * Never changes the existing {@link ResourceCapacity} instances, the best solution clones still use them.
+     */
+    public void initializeResourceCapacity() {
+        resourceCapacities = createResourceCapacities();
+    }
 
-            ResourceCapacity nodeTypeResourceCapacity = nodeTypeResourceCapacityMap.get(clusterNode.getClusterNodeType());
-            nodeTypeResourceCapacity.setCpuCapacity(nodeTypeResourceCapacity.getCpuCapacity() + clusterNode.getCpu());
-            nodeTypeResourceCapacity.setMemoryCapacity(nodeTypeResourceCapacity.getMemoryCapacity() + clusterNode.getMemory());
-            nodeTypeResourceCapacity.setDiskCapacity(nodeTypeResourceCapacity.getDiskCapacity() + clusterNode.getDisk());
-            nodeTypeResourceCapacityMap.put(clusterNode.getClusterNodeType(), nodeTypeResourceCapacity);
+    /**
+     * @return the new resource capacities, without setting them, for a problem fact change that has to notify the
+     * score director of the replaced facts
+     */
+    public List<ResourceCapacity> createResourceCapacities() {
 
-            nodeResourceUsageMap.put(clusterNode, ResourceUsage.builder().build());
+        Map<AvailabilityZone, ResourceCapacity> azResourceCapacityMap = new LinkedHashMap<>(availabilityZones.size());
+        availabilityZones.forEach(availabilityZone -> azResourceCapacityMap.put(availabilityZone,
+                ResourceCapacity.builder().availabilityZone(availabilityZone).build()));
+        Map<ClusterNodeType, ResourceCapacity> nodeTypeResourceCapacityMap = new LinkedHashMap<>(nodeTypes.size());
+        nodeTypes.forEach(nodeType -> nodeTypeResourceCapacityMap.put(nodeType,
+                ResourceCapacity.builder().clusterNodeType(nodeType).build()));
 
+        clusterNodes.forEach(clusterNode -> {
+            // The node may reference an equal, but not the same, AvailabilityZone instance
+            azResourceCapacityMap.computeIfAbsent(clusterNode.getAvailabilityZone(),
+                    key -> ResourceCapacity.builder().availabilityZone(key).build())
+                    .addCapacity(clusterNode.getCapacity());
+            nodeTypeResourceCapacityMap.computeIfAbsent(clusterNode.getClusterNodeType(),
+                    key -> ResourceCapacity.builder().clusterNodeType(key).build())
+                    .addCapacity(clusterNode.getCapacity());
         });
 
-        return ClusterUtilization.builder()
-                .azResourceCapacityMap(azResourceCapacityMap)
-                .azResourceUsageMap(azCpuUsageMap)
-                .nodeTypeResourceCapacityMap(nodeTypeResourceCapacityMap)
-                .nodeTypeResourceUsageMap(nodeTypeResourceUsageMap)
-                .nodeResourceUsageMap(nodeResourceUsageMap)
-                .build();
+        List<ResourceCapacity> createdResourceCapacities = new ArrayList<>(azResourceCapacityMap.size() + nodeTypeResourceCapacityMap.size());
+        createdResourceCapacities.addAll(azResourceCapacityMap.values());
+        createdResourceCapacities.addAll(nodeTypeResourceCapacityMap.values());
+        return createdResourceCapacities;
+    }
+
+    /**
+     * Gives an added cluster node the next free index, after the highest one in {@link #getClusterNodes()}.
+     * Unlike {@link #initializeIndices()}, the other cluster nodes keep their index: they are shared with the best
+     * solution clones, which must not end up with two nodes with the same index. A removed node leaves a gap.
+     */
+    public void initializeAddedClusterNodeIndex(ClusterNode addedClusterNode) {
+        int maximumIndex = -1;
+        for (ClusterNode clusterNode : clusterNodes) {
+            if (clusterNode != addedClusterNode) {
+                maximumIndex = Math.max(maximumIndex, clusterNode.getIndex());
+            }
+        }
+        addedClusterNode.setIndex(maximumIndex + 1);
+    }
+
+    /**
+     * Sets the value range of every process to the cluster nodes in its own {@link AvailabilityZone} and of its own {@link ClusterNodeType}.
+     * Processes of the same AZ and node type share the same list.
+     */
+    public void initializeCompatibleClusterNodes() {
+
+        Map<Pair<AvailabilityZone, ClusterNodeType>, List<ClusterNode>> compatibleClusterNodesMap = new HashMap<>();
+        clusterNodes.forEach(clusterNode -> compatibleClusterNodesMap
+                .computeIfAbsent(Pair.of(clusterNode.getAvailabilityZone(), clusterNode.getClusterNodeType()), key -> new ArrayList<>())
+                .add(clusterNode));
+        clusterProcesses.forEach(process -> process.setCompatibleClusterNodes(compatibleClusterNodesMap
+                .computeIfAbsent(Pair.of(process.getAvailabilityZone(), process.getClusterNodeType()), key -> new ArrayList<>())));
     }
 }
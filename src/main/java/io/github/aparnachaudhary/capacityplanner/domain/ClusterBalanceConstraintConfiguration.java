@@ -0,0 +1,176 @@
+package io.github.aparnachaudhary.capacityplanner.domain;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+import org.optaplanner.core.api.domain.constraintweight.ConstraintConfiguration;
+import org.optaplanner.core.api.domain.constraintweight.ConstraintWeight;
+import org.optaplanner.core.api.domain.solution.cloner.DeepPlanningClone;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+
+import java.io.IOException;
+
+/**
+ * The weight of every constraint, so operators can tune the trade-offs without a redeploy.
+ * A constraint with weight zero is not calculated at all.
+ * In JSON a weight is a score string, such as "0hard/0medium/1soft".
+ * <p>
+ * Every solution clone gets its own copy, so a solver changes the instance of its working solution in place,
+ * see {@link io.github.aparnachaudhary.capacityplanner.change.ConstraintConfigurationChange}.
+ */
+@ConstraintConfiguration(constraintPackage = "io.github.aparnachaudhary.capacityplanner.domain")
+@DeepPlanningClone
+@Data
+public class ClusterBalanceConstraintConfiguration {
+
+    public static final String CLUSTER_NODE_CAPACITY = "ClusterNode capacity";
+    public static final String AVAILABILITY_ZONE_CAPACITY = "AZ capacity";
+    public static final String NODE_TYPE_CAPACITY = "ClusterNodeType capacity";
+    public static final String WRONG_NODE_TYPE = "Wrong ClusterNodeType";
+    public static final String WRONG_AVAILABILITY_ZONE = "Wrong AZ";
+    public static final String NOT_ASSIGNED = "Not Assigned";
+    public static final String CLUSTER_NODE_COST = "ClusterNode Cost";
+    public static final String PROCESS_MIGRATION = "Process migration";
+    public static final String MAXIMUM_MIGRATIONS = "Maximum migrations";
+
+    // ************************************************************************
+    // Hard constraints
+    // ************************************************************************
+
+    // Per unit of any resource used above the capacity of a node
+    @ConstraintWeight(CLUSTER_NODE_CAPACITY)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore clusterNodeCapacity = HardMediumSoftLongScore.ONE_HARD;
+
+    // Per unit of any resource used above the total capacity of the nodes in an AZ
+    @ConstraintWeight(AVAILABILITY_ZONE_CAPACITY)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore availabilityZoneCapacity = HardMediumSoftLongScore.ONE_HARD;
+
+    // Per unit of any resource used above the total capacity of the nodes of a node type
+    @ConstraintWeight(NODE_TYPE_CAPACITY)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore nodeTypeCapacity = HardMediumSoftLongScore.ONE_HARD;
+
+    // Per difficulty index of a process on a node of another node type
+    @ConstraintWeight(WRONG_NODE_TYPE)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore wrongNodeType = HardMediumSoftLongScore.ONE_HARD;
+
+    // Per difficulty index of a process on a node in another AZ
+    @ConstraintWeight(WRONG_AVAILABILITY_ZONE)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore wrongAvailabilityZone = HardMediumSoftLongScore.ONE_HARD;
+
+    // Per migration above maximumMigrationCount
+    @ConstraintWeight(MAXIMUM_MIGRATIONS)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore maximumMigrations = HardMediumSoftLongScore.ONE_HARD;
+
+    // ************************************************************************
+    // Medium constraints
+    // ************************************************************************
+
+    // Per difficulty index of an unassigned process
+    @ConstraintWeight(NOT_ASSIGNED)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore notAssigned = HardMediumSoftLongScore.ONE_MEDIUM;
+
+    // ************************************************************************
+    // Soft constraints
+    // ************************************************************************
+
+    // Per unit of cost of a node with at least one process
+    @ConstraintWeight(CLUSTER_NODE_COST)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore clusterNodeCost = HardMediumSoftLongScore.ONE_SOFT;
+
+    // Per process moved off its original cluster node, see ClusterProcess.isMigrated()
+    @ConstraintWeight(PROCESS_MIGRATION)
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = WeightDeserializer.class)
+    private HardMediumSoftLongScore processMigration = HardMediumSoftLongScore.ONE_SOFT;
+
+    // ************************************************************************
+    // Parameters
+    // ************************************************************************
+
+    // The migrations a re-plan may do without breaking the maximumMigrations constraint, null for no maximum
+    private Integer maximumMigrationCount;
+
+    /**
+     * @throws IllegalArgumentException if a weight is null, for example explicitly null in JSON,
+     * or the maximumMigrationCount is negative
+     */
+    public void validate() {
+        if (clusterNodeCapacity == null || availabilityZoneCapacity == null || nodeTypeCapacity == null
+                || wrongNodeType == null || wrongAvailabilityZone == null || maximumMigrations == null
+                || notAssigned == null || clusterNodeCost == null || processMigration == null) {
+            throw new IllegalArgumentException("The constraintConfiguration (" + this + ") has a null weight.");
+        }
+        if (maximumMigrationCount != null && maximumMigrationCount < 0) {
+            throw new IllegalArgumentException("The maximumMigrationCount (" + maximumMigrationCount + ") is negative.");
+        }
+    }
+
+    /**
+     * @return how far the migrations exceed the {@link #getMaximumMigrationCount()}, 0 if there is no maximum
+     */
+    public long getExcessMigrationCount(long migrationCount) {
+        return maximumMigrationCount == null ? 0L : Math.max(0L, migrationCount - maximumMigrationCount);
+    }
+
+    /**
+     * @return a copy with another maximumMigrationCount
+     */
+    public ClusterBalanceConstraintConfiguration withMaximumMigrationCount(Integer maximumMigrationCount) {
+        ClusterBalanceConstraintConfiguration copy = new ClusterBalanceConstraintConfiguration();
+        copy.copyFrom(this);
+        copy.maximumMigrationCount = maximumMigrationCount;
+        return copy;
+    }
+
+    /**
+     * Sets every weight and parameter to that of the other configuration.
+     */
+    public void copyFrom(ClusterBalanceConstraintConfiguration other) {
+        clusterNodeCapacity = other.clusterNodeCapacity;
+        availabilityZoneCapacity = other.availabilityZoneCapacity;
+        nodeTypeCapacity = other.nodeTypeCapacity;
+        wrongNodeType = other.wrongNodeType;
+        wrongAvailabilityZone = other.wrongAvailabilityZone;
+        maximumMigrations = other.maximumMigrations;
+        notAssigned = other.notAssigned;
+        clusterNodeCost = other.clusterNodeCost;
+        processMigration = other.processMigration;
+        maximumMigrationCount = other.maximumMigrationCount;
+    }
+
+    /**
+     * Parses a weight such as "0hard/2medium/0soft", a missing weight keeps its default.
+     */
+    public static class WeightDeserializer extends JsonDeserializer<HardMediumSoftLongScore> {
+
+        @Override
+        public HardMediumSoftLongScore deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String weight = parser.getValueAsString();
+            try {
+                return HardMediumSoftLongScore.parseScore(weight);
+            } catch (IllegalArgumentException e) {
+                throw context.weirdStringException(weight, HardMediumSoftLongScore.class, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.aparnachaudhary.capacityplanner.domain;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * A saved best solution: the assignments are the cluster node of every persisted {@link ClusterProcess},
+ * this is when they were saved and their score.
+ */
+@Entity
+@Data
+@Builder
+public class ClusterBalancePlan {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private Instant savedAt;
+
+    // For example "0hard/0medium/-2000soft", null if the solution was not scored yet
+    private String score;
+
+    private int processCount;
+    private int assignedProcessCount;
+}
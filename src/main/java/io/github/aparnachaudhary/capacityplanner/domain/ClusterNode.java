@@ -1,46 +1,88 @@
 package io.github.aparnachaudhary.capacityplanner.domain;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Builder;
 import lombok.Data;
-import org.apache.commons.lang3.builder.CompareToBuilder;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
-import org.optaplanner.core.api.domain.solution.cloner.DeepPlanningClone;
 
 import javax.persistence.*;
 import java.io.Serializable;
+import java.util.Comparator;
 
 @Entity
-@DeepPlanningClone
 @Data
 @Builder
 public class ClusterNode implements Serializable, Comparable<ClusterNode> {
 
     private static final long serialVersionUID = 2330429295141905631L;
+    // Null first, like CompareToBuilder: a node from a REST request may not have an id yet
+    private static final Comparator<Long> ID_COMPARATOR = Comparator.nullsFirst(Comparator.naturalOrder());
 
     @PlanningId
     @Id
     protected Long id;
     private String name;
 
-    private int cpu;
-    private int memory;
-    private int disk;
-    private int cost;
+    /**
+     * Position in {@link ClusterBalance#getClusterNodes()}, see {@link ClusterBalance#initializeIndices()}.
+     */
+    @Transient
+    private int index;
+
+    /**
+     * Amount of every {@link Resource}, see {@link ResourceVector}.
+     */
+    @Convert(converter = ResourceVector.JpaConverter.class)
+    @JsonSerialize(using = ResourceVector.Serializer.class)
+    @JsonDeserialize(using = ResourceVector.Deserializer.class)
+    private long[] capacity;
+    private long cost;
     @ManyToOne
     private AvailabilityZone availabilityZone;
     @ManyToOne
     private ClusterNodeType clusterNodeType;
 
-    public int getDifficultyIndex() {
-        return cpu * memory * disk;
+    /**
+     * The template a candidate node of a capacity forecast is generated from, null for a node that exists,
+     * see {@link io.github.aparnachaudhary.capacityplanner.forecast.CandidateClusterNodeGenerator}.
+     */
+    @Transient
+    private ClusterNodeTemplate template;
+
+    public long getCapacity(Resource resource) {
+        return capacity[resource.ordinal()];
+    }
+
+    public long getDifficultyIndex() {
+        return capacity[Resource.CPU.ordinal()] * capacity[Resource.MEMORY.ordinal()] * capacity[Resource.DISK.ordinal()];
+    }
+
+    /**
+     * By id, consistent with {@link #compareTo(ClusterNode)}: the capacity array, AZ and node type are not hashed
+     * on every map lookup of a score calculation.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClusterNode)) {
+            return false;
+        }
+        Long otherId = ((ClusterNode) o).getId();
+        return id != null && id.equals(otherId);
+    }
+
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : Long.hashCode(id);
     }
 
     @Override
     public int compareTo(ClusterNode o) {
-        return new CompareToBuilder()
-                .append(getClass().getName(), o.getClass().getName())
-                .append(id, o.id)
-                .toComparison();
+        // No subclasses, so no class name comparison
+        return ID_COMPARATOR.compare(id, o.id);
     }
 
     @Override
@@ -48,13 +90,20 @@ public class ClusterNode implements Serializable, Comparable<ClusterNode> {
 
         return "[ClusterNode - " + id +
                 " with name:" + name +
-                ", CPU:" + cpu +
-                ", MEM:" + memory +
-                ", DISK:" + disk +
+                ", " + ResourceVector.toString(capacity) +
                 ", AZ:" + availabilityZone.getName() +
                 ", clusterNodeType:" + clusterNodeType.getName() +
                 ", cost:" + cost + "]";
     }
 
+    public static class ClusterNodeBuilder {
+
+        // Zero for every resource that is not set
+        private long[] capacity = ResourceVector.empty();
 
+        public ClusterNodeBuilder resource(Resource resource, long amount) {
+            capacity = ResourceVector.with(capacity, resource, amount);
+            return this;
+        }
+    }
 }
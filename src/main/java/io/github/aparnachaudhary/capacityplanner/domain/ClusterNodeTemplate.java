@@ -0,0 +1,55 @@
+package io.github.aparnachaudhary.capacityplanner.domain;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * A cluster node that can be bought: capacity and cost of one node of a {@link ClusterNodeType},
+ * in any {@link AvailabilityZone}. A node type can have several templates, for example a small and a large one.
+ */
+@Data
+@Builder
+public class ClusterNodeTemplate {
+
+    private String name;
+
+    private ClusterNodeType clusterNodeType;
+
+    /**
+     * Amount of every {@link Resource}, see {@link ResourceVector}.
+     */
+    @JsonSerialize(using = ResourceVector.Serializer.class)
+    @JsonDeserialize(using = ResourceVector.Deserializer.class)
+    private long[] capacity;
+    private long cost;
+
+    /**
+     * @return true if the process fits on an empty node of this template
+     */
+    public boolean fits(ClusterProcess process) {
+        for (int i = 0; i < capacity.length; i++) {
+            if (process.getUsage()[i] > capacity[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterNodeTemplate - " + name;
+    }
+
+    public static class ClusterNodeTemplateBuilder {
+
+        // Zero for every resource that is not set
+        private long[] capacity = ResourceVector.empty();
+
+        public ClusterNodeTemplateBuilder resource(Resource resource, long amount) {
+            capacity = ResourceVector.with(capacity, resource, amount);
+            return this;
+        }
+    }
+}
@@ -3,12 +3,10 @@ package io.github.aparnachaudhary.capacityplanner.domain;
 import lombok.Builder;
 import lombok.Data;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
-import org.optaplanner.core.api.domain.solution.cloner.DeepPlanningClone;
 
 import javax.persistence.*;
 
 @Entity
-@DeepPlanningClone
 @Data
 @Builder
 public class ClusterNodeType {
@@ -19,6 +17,30 @@ public class ClusterNodeType {
 
     private String name;
 
+    /**
+     * Position in {@link ClusterBalance#getNodeTypes()}, see {@link ClusterBalance#initializeIndices()}.
+     */
+    @Transient
+    private int index;
+
+    // By id, like AvailabilityZone
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClusterNodeType)) {
+            return false;
+        }
+        Long otherId = ((ClusterNodeType) o).getId();
+        return id != null && id.equals(otherId);
+    }
+
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : Long.hashCode(id);
+    }
+
     @Override
     public String toString() {
         return "ClusterNodeType - " + name;
@@ -1,38 +1,50 @@
 package io.github.aparnachaudhary.capacityplanner.domain;
 
-import io.github.aparnachaudhary.capacityplanner.extension.ClusterNodeStrengthComparator;
-import io.github.aparnachaudhary.capacityplanner.extension.ProcessDifficultyComparator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.github.aparnachaudhary.capacityplanner.extension.ClusterNodeStrengthWeightFactory;
+import io.github.aparnachaudhary.capacityplanner.extension.ProcessDifficultyWeightFactory;
 import lombok.Builder;
 import lombok.Data;
-import org.apache.commons.lang3.builder.CompareToBuilder;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
+import org.optaplanner.core.api.domain.entity.PlanningPin;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
-import org.optaplanner.core.api.domain.solution.cloner.DeepPlanningClone;
+import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
+import javax.persistence.Transient;
 import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
 
-@PlanningEntity(difficultyComparatorClass = ProcessDifficultyComparator.class)
+@PlanningEntity(difficultyWeightFactoryClass = ProcessDifficultyWeightFactory.class)
 @Entity
-@DeepPlanningClone
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ClusterProcess implements Serializable, Comparable<ClusterProcess> {
 
     private static final long serialVersionUID = -224283897820531278L;
+    // Null first, like CompareToBuilder: a process from a REST request may not have an id yet
+    private static final Comparator<Long> ID_COMPARATOR = Comparator.nullsFirst(Comparator.naturalOrder());
 
     @PlanningId
     @Id
     protected Long id;
     private String name;
 
-    private int cpu;
-    private int memory;
-    private int disk;
+    /**
+     * Amount of every {@link Resource} that the process uses on its cluster node, see {@link ResourceVector}.
+     */
+    @Convert(converter = ResourceVector.JpaConverter.class)
+    @JsonSerialize(using = ResourceVector.Serializer.class)
+    @JsonDeserialize(using = ResourceVector.Deserializer.class)
+    private long[] usage;
 
     @OneToOne
     private AvailabilityZone availabilityZone;
@@ -40,12 +52,47 @@ public class ClusterProcess implements Serializable, Comparable<ClusterProcess>
     @OneToOne
     private ClusterNodeType clusterNodeType;
 
-    @PlanningVariable(valueRangeProviderRefs = "clusterNodeProvider", strengthComparatorClass = ClusterNodeStrengthComparator.class, nullable = true)
+    /**
+     * The cluster nodes in the same AZ and of the same node type, see {@link ClusterBalance#initializeCompatibleClusterNodes()}.
+     * Other nodes are always a hard constraint violation, so the solver does not even try them.
+     */
+    @Transient
+    @JsonIgnore
+    @ValueRangeProvider(id = "compatibleClusterNodeRange")
+    private List<ClusterNode> compatibleClusterNodes;
+
+    @PlanningVariable(valueRangeProviderRefs = "compatibleClusterNodeRange", strengthWeightFactoryClass = ClusterNodeStrengthWeightFactory.class, nullable = true)
     @ManyToOne
     private ClusterNode clusterNode;
 
-    public int getDifficultyIndex() {
-        return cpu * memory * disk;
+    /**
+     * A pinned process keeps its cluster node (or stays unassigned): no move selector ever selects it,
+     * so a re-plan only searches over the processes that are not pinned.
+     */
+    @PlanningPin
+    private boolean pinned;
+
+    /**
+     * The cluster node the process is running on before this re-plan, null for a process that is not deployed yet.
+     * Moving it elsewhere (or unassigning it) is a migration, see {@link #isMigrated()}.
+     * Not persisted: a loaded plan is what is running, so its cluster node becomes the original one.
+     */
+    @Transient
+    private ClusterNode originalClusterNode;
+
+    public long getUsage(Resource resource) {
+        return usage[resource.ordinal()];
+    }
+
+    /**
+     * @return true if the process runs somewhere and the plan moves it, compares by instance, see {@link ClusterBalance#resolveReferences()}
+     */
+    public boolean isMigrated() {
+        return originalClusterNode != null && clusterNode != originalClusterNode;
+    }
+
+    public long getDifficultyIndex() {
+        return usage[Resource.CPU.ordinal()] * usage[Resource.MEMORY.ordinal()] * usage[Resource.DISK.ordinal()];
     }
 
     @Override
@@ -53,9 +100,7 @@ public class ClusterProcess implements Serializable, Comparable<ClusterProcess>
 
         return "ClusterProcess-" + id +
                 " with name:" + name +
-                ", cpu:" + cpu +
-                ", memory:" + memory +
-                ", disk:" + disk +
+                ", " + ResourceVector.toString(usage) +
                 ", AZ:" + availabilityZone.getName() +
                 ", clusterNodeType:" + clusterNodeType.getName() +
                 "; assignedToClusterNode=" + clusterNode;
@@ -65,20 +110,46 @@ public class ClusterProcess implements Serializable, Comparable<ClusterProcess>
 
         return "[ClusterProcess-" + id +
                 " with name:" + name +
-                ", cpu:" + cpu +
-                ", memory:" + memory +
-                ", disk:" + disk +
+                ", " + ResourceVector.toString(usage) +
                 ", AZ:" + availabilityZone.getName() +
                 ", clusterNodeType:" + clusterNodeType.getName() +
                 "] assignedToClusterNode=[" + clusterNode.getName() + "]";
     }
 
+    /**
+     * By id only: the planning variable and the pin change during solving, so they must not affect the hashCode
+     * (tabu search, Drools), and the usage and the AZ are not worth hashing.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClusterProcess)) {
+            return false;
+        }
+        Long otherId = ((ClusterProcess) o).getId();
+        return id != null && id.equals(otherId);
+    }
+
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : Long.hashCode(id);
+    }
+
     @Override
     public int compareTo(ClusterProcess o) {
-        return new CompareToBuilder()
-                .append(getClass().getName(), o.getClass().getName())
-                .append(id, o.id)
-                .toComparison();
+        return ID_COMPARATOR.compare(id, o.id);
     }
 
+    public static class ClusterProcessBuilder {
+
+        // Zero for every resource that is not set
+        private long[] usage = ResourceVector.empty();
+
+        public ClusterProcessBuilder resource(Resource resource, long amount) {
+            usage = ResourceVector.with(usage, resource, amount);
+            return this;
+        }
+    }
 }
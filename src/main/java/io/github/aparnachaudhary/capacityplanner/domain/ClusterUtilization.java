@@ -1,20 +1,189 @@
 package io.github.aparnachaudhary.capacityplanner.domain;
 
-import lombok.Builder;
-import lombok.Data;
+import java.util.Arrays;
+import java.util.List;
 
-import java.util.Map;
-
-@Builder
-@Data
+/**
+ * Capacity and usage of every {@link ClusterNode}, {@link AvailabilityZone} and {@link ClusterNodeType},
+ * in long arrays indexed by their {@code index} (see {@link ClusterBalance#initializeIndices()}) times {@link #RESOURCE_COUNT}
+ * plus the {@link Resource#ordinal()}, like a {@link ResourceVector} per node, AZ and node type.
+ * Only processes on a node in their own AZ and of their own node type use its resources.
+ * <p>
+ * Allocated once per problem size; {@link #reset(ClusterBalance)} refills it without allocating,
+ * so score calculators can keep one instance and reuse it for every score calculation.
+ */
 public class ClusterUtilization {
 
-    private Map<AvailabilityZone, ResourceCapacity> azResourceCapacityMap;
-    private Map<AvailabilityZone, ResourceUsage> azResourceUsageMap;
+    public static final int RESOURCE_COUNT = Resource.COUNT;
+
+    private final long[] nodeCapacities;
+    private final long[] nodeUsages;
+    private final int[] nodeProcessCounts;
+
+    private final long[] azCapacities;
+    private final long[] azUsages;
+
+    private final long[] nodeTypeCapacities;
+    private final long[] nodeTypeUsages;
+
+    public ClusterUtilization(int clusterNodeCount, int availabilityZoneCount, int nodeTypeCount) {
+        nodeCapacities = new long[clusterNodeCount * RESOURCE_COUNT];
+        nodeUsages = new long[clusterNodeCount * RESOURCE_COUNT];
+        nodeProcessCounts = new int[clusterNodeCount];
+        azCapacities = new long[availabilityZoneCount * RESOURCE_COUNT];
+        azUsages = new long[availabilityZoneCount * RESOURCE_COUNT];
+        nodeTypeCapacities = new long[nodeTypeCount * RESOURCE_COUNT];
+        nodeTypeUsages = new long[nodeTypeCount * RESOURCE_COUNT];
+    }
+
+    /**
+     * @param clusterUtilization null or a previously used instance
+     * @return {@code clusterUtilization} if it has the right size, otherwise a new instance, reset for the clusterBalance
+     */
+    public static ClusterUtilization reuseOrCreate(ClusterUtilization clusterUtilization, ClusterBalance clusterBalance) {
+        // A part of a partitioned search only has some of the nodes, but they keep their index
+        int clusterNodeCount = 0;
+        for (ClusterNode clusterNode : clusterBalance.getClusterNodes()) {
+            clusterNodeCount = Math.max(clusterNodeCount, clusterNode.getIndex() + 1);
+        }
+        int availabilityZoneCount = clusterBalance.getAvailabilityZones().size();
+        int nodeTypeCount = clusterBalance.getNodeTypes().size();
+        if (clusterUtilization == null
+                || clusterUtilization.nodeProcessCounts.length != clusterNodeCount
+                || clusterUtilization.azCapacities.length != availabilityZoneCount * RESOURCE_COUNT
+                || clusterUtilization.nodeTypeCapacities.length != nodeTypeCount * RESOURCE_COUNT) {
+            clusterUtilization = new ClusterUtilization(clusterNodeCount, availabilityZoneCount, nodeTypeCount);
+        }
+        clusterUtilization.reset(clusterBalance);
+        return clusterUtilization;
+    }
+
+    /**
+     * Reads the capacities from the cluster nodes and clears all usage.
+     */
+    public void reset(ClusterBalance clusterBalance) {
+        Arrays.fill(nodeCapacities, 0L);
+        Arrays.fill(nodeUsages, 0L);
+        Arrays.fill(nodeProcessCounts, 0);
+        Arrays.fill(azCapacities, 0L);
+        Arrays.fill(azUsages, 0L);
+        Arrays.fill(nodeTypeCapacities, 0L);
+        Arrays.fill(nodeTypeUsages, 0L);
+
+        List<ClusterNode> clusterNodes = clusterBalance.getClusterNodes();
+        for (int i = 0; i < clusterNodes.size(); i++) {
+            ClusterNode clusterNode = clusterNodes.get(i);
+            int nodeOffset = clusterNode.getIndex() * RESOURCE_COUNT;
+            System.arraycopy(clusterNode.getCapacity(), 0, nodeCapacities, nodeOffset, RESOURCE_COUNT);
+            addCapacity(azCapacities, clusterNode.getAvailabilityZone().getIndex() * RESOURCE_COUNT, clusterNode);
+            addCapacity(nodeTypeCapacities, clusterNode.getClusterNodeType().getIndex() * RESOURCE_COUNT, clusterNode);
+        }
+    }
+
+    private static void addCapacity(long[] capacities, int offset, ClusterNode clusterNode) {
+        long[] capacity = clusterNode.getCapacity();
+        for (int i = 0; i < RESOURCE_COUNT; i++) {
+            capacities[offset + i] += capacity[i];
+        }
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) the resources of the process to the node, its AZ and its node type.
+     *
+     * @return the number of processes on the node afterwards
+     */
+    public int addProcess(ClusterNode clusterNode, ClusterProcess process, int sign) {
+        return addProcess(clusterNode, process, sign, true, true);
+    }
+
+    /**
+     * Like {@link #addProcess(ClusterNode, ClusterProcess, int)}, but skips the AZ or node-type usage
+     * when that level is not calculated: its over capacity is then meaningless until the next {@link #reset(ClusterBalance)}.
+     */
+    public int addProcess(ClusterNode clusterNode, ClusterProcess process, int sign,
+                          boolean availabilityZoneUsage, boolean nodeTypeUsage) {
+        addUsage(nodeUsages, clusterNode.getIndex() * RESOURCE_COUNT, process, sign);
+        if (availabilityZoneUsage) {
+            addUsage(azUsages, clusterNode.getAvailabilityZone().getIndex() * RESOURCE_COUNT, process, sign);
+        }
+        if (nodeTypeUsage) {
+            addUsage(nodeTypeUsages, clusterNode.getClusterNodeType().getIndex() * RESOURCE_COUNT, process, sign);
+        }
+        return nodeProcessCounts[clusterNode.getIndex()] += sign;
+    }
+
+    private static void addUsage(long[] usages, int offset, ClusterProcess process, int sign) {
+        long[] usage = process.getUsage();
+        for (int i = 0; i < RESOURCE_COUNT; i++) {
+            usages[offset + i] += sign * usage[i];
+        }
+    }
+
+    public int getProcessCount(ClusterNode clusterNode) {
+        return nodeProcessCounts[clusterNode.getIndex()];
+    }
+
+    /**
+     * @return the usage above capacity of the node, summed over all resources
+     */
+    public long getNodeOverCapacity(ClusterNode clusterNode) {
+        return overCapacity(nodeCapacities, nodeUsages, clusterNode.getIndex() * RESOURCE_COUNT);
+    }
+
+    public long getAvailabilityZoneOverCapacity(AvailabilityZone availabilityZone) {
+        return overCapacity(azCapacities, azUsages, availabilityZone.getIndex() * RESOURCE_COUNT);
+    }
+
+    public long getNodeTypeOverCapacity(ClusterNodeType nodeType) {
+        return overCapacity(nodeTypeCapacities, nodeTypeUsages, nodeType.getIndex() * RESOURCE_COUNT);
+    }
+
+    public long getNodeOverCapacity(ClusterNode clusterNode, Resource resource) {
+        return resourceOverCapacity(nodeCapacities, nodeUsages, clusterNode.getIndex() * RESOURCE_COUNT + resource.ordinal());
+    }
+
+    public long getAvailabilityZoneOverCapacity(AvailabilityZone availabilityZone, Resource resource) {
+        return resourceOverCapacity(azCapacities, azUsages, availabilityZone.getIndex() * RESOURCE_COUNT + resource.ordinal());
+    }
+
+    public long getNodeTypeOverCapacity(ClusterNodeType nodeType, Resource resource) {
+        return resourceOverCapacity(nodeTypeCapacities, nodeTypeUsages, nodeType.getIndex() * RESOURCE_COUNT + resource.ordinal());
+    }
+
+    /**
+     * @return the usage above capacity of all nodes, summed over all resources
+     */
+    public long getTotalNodeOverCapacity() {
+        return totalOverCapacity(nodeCapacities, nodeUsages);
+    }
+
+    public long getTotalAvailabilityZoneOverCapacity() {
+        return totalOverCapacity(azCapacities, azUsages);
+    }
+
+    public long getTotalNodeTypeOverCapacity() {
+        return totalOverCapacity(nodeTypeCapacities, nodeTypeUsages);
+    }
 
-    private Map<ClusterNodeType, ResourceCapacity> nodeTypeResourceCapacityMap;
-    private Map<ClusterNodeType, ResourceUsage> nodeTypeResourceUsageMap;
+    private static long overCapacity(long[] capacities, long[] usages, int offset) {
+        long overCapacity = 0L;
+        for (int i = offset; i < offset + RESOURCE_COUNT; i++) {
+            overCapacity += resourceOverCapacity(capacities, usages, i);
+        }
+        return overCapacity;
+    }
 
-    private Map<ClusterNode, ResourceUsage> nodeResourceUsageMap;
+    private static long resourceOverCapacity(long[] capacities, long[] usages, int i) {
+        return usages[i] > capacities[i] ? usages[i] - capacities[i] : 0L;
+    }
 
+    private static long totalOverCapacity(long[] capacities, long[] usages) {
+        long overCapacity = 0L;
+        for (int i = 0; i < usages.length; i++) {
+            if (usages[i] > capacities[i]) {
+                overCapacity += usages[i] - capacities[i];
+            }
+        }
+        return overCapacity;
+    }
 }
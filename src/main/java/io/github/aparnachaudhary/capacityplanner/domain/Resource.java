@@ -0,0 +1,64 @@
+package io.github.aparnachaudhary.capacityplanner.domain;
+
+/**
+ * The registry of resources that cluster nodes provide and processes use.
+ * A resource vector is a {@code long[]} of {@link #COUNT} amounts, the amount of a resource is at its {@link #ordinal()},
+ * see {@link ResourceVector}. Add new resources at the end: the vectors are stored in that order.
+ */
+public enum Resource {
+
+    CPU("cpu", "CPU"),
+    MEMORY("memory", "Memory"),
+    DISK("disk", "Disk"),
+    NETWORK_BANDWIDTH("networkBandwidth", "Network bandwidth"),
+    // A number of GPU slots, a GPU is never shared between processes
+    GPU("gpu", "GPU"),
+    IOPS("iops", "IOPS"),
+    EPHEMERAL_STORAGE("ephemeralStorage", "Ephemeral storage");
+
+    public static final int COUNT = values().length;
+
+    private static final Resource[] VALUES = values();
+
+    private final String key;
+    private final String label;
+
+    Resource(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    /**
+     * @return the name of the CSV column and JSON property
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return a readable name, such as "Network bandwidth"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return never null
+     * @throws IllegalArgumentException if there is no resource with that key
+     */
+    public static Resource ofKey(String key) {
+        for (Resource resource : VALUES) {
+            if (resource.key.equals(key)) {
+                return resource;
+            }
+        }
+        throw new IllegalArgumentException("The resource (" + key + ") does not exist.");
+    }
+
+    /**
+     * @return the shared array of all resources, in vector order, do not change it
+     */
+    static Resource[] all() {
+        return VALUES;
+    }
+}
@@ -3,13 +3,34 @@ package io.github.aparnachaudhary.capacityplanner.domain;
 import lombok.Builder;
 import lombok.Data;
 
+/**
+ * Sum of the capacity of all cluster nodes in one {@link AvailabilityZone} or of one {@link ClusterNodeType},
+ * a problem fact of its own, see {@link ClusterBalance#initializeResourceCapacity()}.
+ * Exactly one of availabilityZone and clusterNodeType is set.
+ * <p>
+ * Never changed after it is initialized: a problem fact change that adds or removes a cluster node replaces it,
+ * so the best solution clones keep the capacity of their own cluster nodes.
+ */
 @Builder
 @Data
 public class ResourceCapacity {
 
-    private int cpuCapacity;
-    private int memoryCapacity;
-    private int diskCapacity;
+    private AvailabilityZone availabilityZone;
+    private ClusterNodeType clusterNodeType;
 
+    /**
+     * Amount of every {@link Resource}, see {@link ResourceVector}.
+     */
+    @Builder.Default
+    private long[] capacity = ResourceVector.empty();
 
+    public long getCapacity(Resource resource) {
+        return capacity[resource.ordinal()];
+    }
+
+    public void addCapacity(long[] addedCapacity) {
+        for (int i = 0; i < capacity.length; i++) {
+            capacity[i] += addedCapacity[i];
+        }
+    }
 }
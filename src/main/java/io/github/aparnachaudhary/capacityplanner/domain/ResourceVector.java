@@ -0,0 +1,147 @@
+package io.github.aparnachaudhary.capacityplanner.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import javax.persistence.AttributeConverter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Helpers for resource vectors: {@code long[]} of {@link Resource#COUNT} amounts, indexed by {@link Resource#ordinal()}.
+ * A vector of a cluster node or process is never changed after it is built, so copies can share it.
+ * In JSON a vector is an object with a property per {@link Resource#getKey()}, in the database a comma separated list.
+ */
+public final class ResourceVector {
+
+    private ResourceVector() {
+    }
+
+    /**
+     * @return a new vector with zero for every resource
+     */
+    public static long[] empty() {
+        return new long[Resource.COUNT];
+    }
+
+    /**
+     * @param vector null if it was missing, for example in a REST request
+     * @return the vector, or {@link #empty()} if it is null
+     */
+    public static long[] orEmpty(long[] vector) {
+        return vector == null ? empty() : vector;
+    }
+
+    /**
+     * @param vector null is treated as {@link #empty()}, never changed
+     * @return a copy of the vector with the amount of one resource replaced
+     */
+    public static long[] with(long[] vector, Resource resource, long amount) {
+        long[] copy = vector == null ? empty() : vector.clone();
+        copy[resource.ordinal()] = amount;
+        return copy;
+    }
+
+    /**
+     * @param amountByKey the amount of a resource as text, by its {@link Resource#getKey()}, null or empty for zero
+     * @throws NumberFormatException if an amount is not a number
+     */
+    public static long[] parse(Function<String, String> amountByKey) {
+        long[] vector = empty();
+        for (Resource resource : Resource.all()) {
+            String amount = amountByKey.apply(resource.getKey());
+            if (amount != null && !amount.isEmpty()) {
+                vector[resource.ordinal()] = Long.parseLong(amount.trim());
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * @return for example "cpu:2, memory:32, disk:4", without the resources that are zero
+     */
+    public static String toString(long[] vector) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Resource resource : Resource.all()) {
+            if (vector[resource.ordinal()] != 0L) {
+                joiner.add(resource.getKey() + ":" + vector[resource.ordinal()]);
+            }
+        }
+        return joiner.toString();
+    }
+
+    public static class Serializer extends JsonSerializer<long[]> {
+
+        @Override
+        public void serialize(long[] vector, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeStartObject();
+            for (Resource resource : Resource.all()) {
+                generator.writeNumberField(resource.getKey(), vector[resource.ordinal()]);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<long[]> {
+
+        @Override
+        public long[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            long[] vector = empty();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                return (long[]) context.handleUnexpectedToken(long[].class, parser);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+                try {
+                    vector[Resource.ofKey(key).ordinal()] = parser.getLongValue();
+                } catch (IllegalArgumentException e) {
+                    throw context.weirdKeyException(long[].class, key, e.getMessage());
+                }
+            }
+            return vector;
+        }
+
+        /**
+         * A missing or null vector has zero for every resource.
+         */
+        @Override
+        public long[] getNullValue(DeserializationContext context) {
+            return empty();
+        }
+    }
+
+    /**
+     * Stores a vector as the amounts separated by commas, in {@link Resource} order.
+     * A stored vector with fewer amounts, from before resources were added, gets zero for the others.
+     */
+    public static class JpaConverter implements AttributeConverter<long[], String> {
+
+        @Override
+        public String convertToDatabaseColumn(long[] vector) {
+            StringJoiner joiner = new StringJoiner(",");
+            for (long amount : vector) {
+                joiner.add(Long.toString(amount));
+            }
+            return joiner.toString();
+        }
+
+        @Override
+        public long[] convertToEntityAttribute(String column) {
+            long[] vector = empty();
+            if (column == null || column.isEmpty()) {
+                return vector;
+            }
+            long[] storedVector = Arrays.stream(column.split(",")).mapToLong(Long::parseLong).toArray();
+            System.arraycopy(storedVector, 0, vector, 0, Math.min(storedVector.length, vector.length));
+            return vector;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.aparnachaudhary.capacityplanner.explanation;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The constraint matches of one process, cluster node, AZ or node type.
+ */
+@Data
+@Builder
+public class IndictmentSummary {
+
+    private Long id;
+    private String name;
+    private String score;
+    private int matchCount;
+    private List<String> constraintNames;
+}
@@ -0,0 +1,98 @@
+package io.github.aparnachaudhary.capacityplanner.explanation;
+
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+import io.github.aparnachaudhary.capacityplanner.metrics.ConstraintMatchCount;
+import org.optaplanner.core.api.score.constraint.ConstraintMatch;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.score.constraint.Indictment;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.score.director.InnerScoreDirectorFactory;
+import org.optaplanner.core.impl.score.director.ScoreDirectorFactory;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Explains the best solutions of one solver. The explanation of a solution is computed once, on the first request,
+ * and served from the cache until the solver has a new best solution, however many requests come in.
+ */
+public class ScoreExplainer {
+
+    // Worst score first
+    @SuppressWarnings("unchecked")
+    private static final Comparator<ConstraintMatchTotal> CONSTRAINT_MATCH_TOTAL_COMPARATOR =
+            (a, b) -> a.getScore().compareTo(b.getScore());
+    @SuppressWarnings("unchecked")
+    private static final Comparator<Indictment> INDICTMENT_COMPARATOR = (a, b) -> a.getScore().compareTo(b.getScore());
+
+    private final InnerScoreDirectorFactory<ClusterBalance> scoreDirectorFactory;
+
+    private ClusterBalance explainedSolution;
+    private ScoreExplanation explanation;
+
+    public ScoreExplainer(ScoreDirectorFactory<ClusterBalance> scoreDirectorFactory) {
+        this.scoreDirectorFactory = (InnerScoreDirectorFactory<ClusterBalance>) scoreDirectorFactory;
+    }
+
+    /**
+     * @param solution never null, must not change afterwards, such as a best solution
+     */
+    public synchronized ScoreExplanation explain(ClusterBalance solution) {
+        if (solution != explainedSolution) {
+            explanation = computeExplanation(solution);
+            explainedSolution = solution;
+        }
+        return explanation;
+    }
+
+    private ScoreExplanation computeExplanation(ClusterBalance solution) {
+        try (InnerScoreDirector<ClusterBalance> scoreDirector = scoreDirectorFactory.buildScoreDirector(false, true)) {
+            if (!scoreDirector.isConstraintMatchEnabled()) {
+                throw new IllegalStateException("The score calculator (" + scoreDirector.getClass().getSimpleName()
+                        + ") does not support constraint matches.");
+            }
+            scoreDirector.setWorkingSolution(solution);
+            ScoreExplanation.ScoreExplanationBuilder builder = ScoreExplanation.builder()
+                    .score(scoreDirector.calculateScore().toString())
+                    .constraintMatchTotals(scoreDirector.getConstraintMatchTotals().stream()
+                            .sorted(CONSTRAINT_MATCH_TOTAL_COMPARATOR)
+                            .map(constraintMatchTotal -> ConstraintMatchCount.builder()
+                                    .constraintName(constraintMatchTotal.getConstraintName())
+                                    .matchCount(constraintMatchTotal.getConstraintMatchCount())
+                                    .score(constraintMatchTotal.getScore().toString())
+                                    .build())
+                            .collect(Collectors.toList()));
+
+            Collection<Indictment> indictments = scoreDirector.getIndictmentMap().values();
+            return builder
+                    .clusterNodeIndictments(summarize(indictments, ClusterNode.class, ClusterNode::getId, ClusterNode::getName))
+                    .availabilityZoneIndictments(summarize(indictments, AvailabilityZone.class, AvailabilityZone::getId, AvailabilityZone::getName))
+                    .nodeTypeIndictments(summarize(indictments, ClusterNodeType.class, ClusterNodeType::getId, ClusterNodeType::getName))
+                    .processIndictments(summarize(indictments, ClusterProcess.class, ClusterProcess::getId, ClusterProcess::getName))
+                    .build();
+        }
+    }
+
+    private static <T> List<IndictmentSummary> summarize(Collection<Indictment> indictments, Class<T> justificationClass,
+                                                         Function<T, Long> idFunction, Function<T, String> nameFunction) {
+        return indictments.stream()
+                .filter(indictment -> justificationClass.isInstance(indictment.getJustification()))
+                .sorted(INDICTMENT_COMPARATOR)
+                .map(indictment -> {
+                    T justification = justificationClass.cast(indictment.getJustification());
+                    return IndictmentSummary.builder()
+                            .id(idFunction.apply(justification))
+                            .name(nameFunction.apply(justification))
+                            .score(indictment.getScore().toString())
+                            .matchCount(indictment.getConstraintMatchCount())
+                            .constraintNames(indictment.getConstraintMatchSet().stream()
+                                    .map(ConstraintMatch::getConstraintName)
+                                    .distinct()
+                                    .sorted()
+                                    .collect(Collectors.toList()))
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+}
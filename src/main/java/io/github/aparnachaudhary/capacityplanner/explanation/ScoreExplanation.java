@@ -0,0 +1,38 @@
+package io.github.aparnachaudhary.capacityplanner.explanation;
+
+import io.github.aparnachaudhary.capacityplanner.metrics.ConstraintMatchCount;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Why a solution has its score: the constraint match totals and the indictments per type, worst first.
+ */
+@Data
+@Builder(toBuilder = true)
+public class ScoreExplanation {
+
+    private String score;
+    private List<ConstraintMatchCount> constraintMatchTotals;
+    private List<IndictmentSummary> clusterNodeIndictments;
+    private List<IndictmentSummary> availabilityZoneIndictments;
+    private List<IndictmentSummary> nodeTypeIndictments;
+    private List<IndictmentSummary> processIndictments;
+
+    /**
+     * @return a view with at most {@code limit} (the worst) indictments per type
+     */
+    public ScoreExplanation limit(int limit) {
+        return toBuilder()
+                .clusterNodeIndictments(limit(clusterNodeIndictments, limit))
+                .availabilityZoneIndictments(limit(availabilityZoneIndictments, limit))
+                .nodeTypeIndictments(limit(nodeTypeIndictments, limit))
+                .processIndictments(limit(processIndictments, limit))
+                .build();
+    }
+
+    private static <T> List<T> limit(List<T> list, int limit) {
+        return list.size() <= limit ? list : list.subList(0, limit);
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.aparnachaudhary.capacityplanner.extension;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.domain.Resource;
+import org.optaplanner.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+
+import java.util.Objects;
+
+/**
+ * Resource-shape distance for nearby selection: how much of the cpu, memory and disk of a node a process leaves unused,
+ * as the Euclidean length of the unused fractions, so the nodes it fills best come first.
+ * A node the process does not fit on comes after every node it fits on, a node in another AZ or of another node type
+ * (never in its value range) and no node at all come last.
+ * <p>
+ * Only the capacity counts, not what other processes already use: the distances are computed once per phase.
+ */
+public class ClusterNodeNearbyDistanceMeter implements NearbyDistanceMeter<ClusterProcess, ClusterNode> {
+
+    private static final Resource[] SHAPE_RESOURCES = {Resource.CPU, Resource.MEMORY, Resource.DISK};
+    // Above the largest distance of a node the process fits on, which is sqrt(3)
+    private static final double NOT_FITTING_DISTANCE = 2.0;
+
+    @Override
+    public double getNearbyDistance(ClusterProcess process, ClusterNode clusterNode) {
+        if (clusterNode == null
+                || !Objects.equals(clusterNode.getAvailabilityZone().getId(), process.getAvailabilityZone().getId())
+                || !Objects.equals(clusterNode.getClusterNodeType().getId(), process.getClusterNodeType().getId())) {
+            return Double.MAX_VALUE;
+        }
+        double unusedSquaredSum = 0.0;
+        boolean fits = true;
+        for (Resource resource : SHAPE_RESOURCES) {
+            long capacity = clusterNode.getCapacity(resource);
+            long usage = process.getUsage(resource);
+            if (usage > capacity) {
+                fits = false;
+            } else if (capacity > 0L) {
+                double unused = 1.0 - (double) usage / capacity;
+                unusedSquaredSum += unused * unused;
+            }
+        }
+        return fits ? Math.sqrt(unusedSquaredSum) : NOT_FITTING_DISTANCE + Math.sqrt(unusedSquaredSum);
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.aparnachaudhary.capacityplanner.extension;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorterWeightFactory;
+
+/**
+ * Weakest first: no node (the variable is nullable), then by increasing capacity ({@link ClusterNode#getDifficultyIndex()}), then by id.
+ * The weight is computed once per node per sort, so comparing is a primitive comparison without allocations.
+ */
+public class ClusterNodeStrengthWeightFactory implements SelectionSorterWeightFactory<ClusterBalance, ClusterNode> {
+
+    private static final ClusterNodeStrengthWeight NO_CLUSTER_NODE_WEIGHT = new ClusterNodeStrengthWeight(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    @Override
+    public ClusterNodeStrengthWeight createSorterWeight(ClusterBalance clusterBalance, ClusterNode clusterNode) {
+        if (clusterNode == null) {
+            return NO_CLUSTER_NODE_WEIGHT;
+        }
+        return new ClusterNodeStrengthWeight(clusterNode.getDifficultyIndex(), clusterNode.getId());
+    }
+
+    public static class ClusterNodeStrengthWeight implements Comparable<ClusterNodeStrengthWeight> {
+
+        private final long capacityIndex;
+        private final long id;
+
+        public ClusterNodeStrengthWeight(long capacityIndex, long id) {
+            this.capacityIndex = capacityIndex;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(ClusterNodeStrengthWeight other) {
+            int comparison = Long.compare(capacityIndex, other.capacityIndex);
+            return comparison != 0 ? comparison : Long.compare(id, other.id);
+        }
+    }
+}
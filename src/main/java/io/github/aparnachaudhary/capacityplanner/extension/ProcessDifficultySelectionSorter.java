@@ -0,0 +1,14 @@
+package io.github.aparnachaudhary.capacityplanner.extension;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.optaplanner.core.config.heuristic.selector.common.decorator.SelectionSorterOrder;
+
+/**
+ * Hardest first, for FIRST_FIT_DECREASING, see {@link ProcessDifficultyWeightFactory}.
+ */
+public class ProcessDifficultySelectionSorter extends WeightArraySelectionSorter<ClusterProcess> {
+
+    public ProcessDifficultySelectionSorter() {
+        super(new ProcessDifficultyWeightFactory(), SelectionSorterOrder.DESCENDING);
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.aparnachaudhary.capacityplanner.extension;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorterWeightFactory;
+
+/**
+ * Easiest first: by increasing {@link ClusterProcess#getDifficultyIndex()}, then by id.
+ * The weight is computed once per process per sort, so comparing is a primitive comparison without allocations.
+ */
+public class ProcessDifficultyWeightFactory implements SelectionSorterWeightFactory<ClusterBalance, ClusterProcess> {
+
+    @Override
+    public ProcessDifficultyWeight createSorterWeight(ClusterBalance clusterBalance, ClusterProcess process) {
+        return new ProcessDifficultyWeight(process.getDifficultyIndex(), process.getId());
+    }
+
+    public static class ProcessDifficultyWeight implements Comparable<ProcessDifficultyWeight> {
+
+        private final long difficultyIndex;
+        private final long id;
+
+        public ProcessDifficultyWeight(long difficultyIndex, long id) {
+            this.difficultyIndex = difficultyIndex;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(ProcessDifficultyWeight other) {
+            int comparison = Long.compare(difficultyIndex, other.difficultyIndex);
+            return comparison != 0 ? comparison : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.aparnachaudhary.capacityplanner.extension;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import org.optaplanner.core.config.heuristic.selector.common.decorator.SelectionSorterOrder;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorter;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorterWeightFactory;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts by the weights of a {@link SelectionSorterWeightFactory}, computed once per element, with a merge sort of an array list.
+ * OptaPlanner's own weight factory sorter puts every weight in a TreeMap, which is slower than comparing the elements
+ * themselves, see {@code SelectionSorterBenchmark}.
+ * The weights must be unique, like for OptaPlanner's sorter: equal weights keep their original order.
+ */
+public abstract class WeightArraySelectionSorter<T> implements SelectionSorter<ClusterBalance, T> {
+
+    private final SelectionSorterWeightFactory<ClusterBalance, T> weightFactory;
+    private final Comparator<WeightedSelection<T>> comparator;
+
+    protected WeightArraySelectionSorter(SelectionSorterWeightFactory<ClusterBalance, T> weightFactory, SelectionSorterOrder order) {
+        this.weightFactory = weightFactory;
+        Comparator<WeightedSelection<T>> ascendingComparator = (a, b) -> a.weight.compareTo(b.weight);
+        this.comparator = order == SelectionSorterOrder.ASCENDING ? ascendingComparator : ascendingComparator.reversed();
+    }
+
+    @Override
+    public void sort(ScoreDirector<ClusterBalance> scoreDirector, List<T> selectionList) {
+        sort(scoreDirector.getWorkingSolution(), selectionList);
+    }
+
+    public void sort(ClusterBalance clusterBalance, List<T> selectionList) {
+        List<WeightedSelection<T>> weightedSelections = new ArrayList<>(selectionList.size());
+        for (T selection : selectionList) {
+            // The weight factory API returns a raw Comparable, the weights of one factory are comparable to each other
+            @SuppressWarnings("unchecked")
+            Comparable<Object> weight = weightFactory.createSorterWeight(clusterBalance, selection);
+            weightedSelections.add(new WeightedSelection<>(weight, selection));
+        }
+        weightedSelections.sort(comparator);
+        for (int i = 0; i < weightedSelections.size(); i++) {
+            selectionList.set(i, weightedSelections.get(i).selection);
+        }
+    }
+
+    private static final class WeightedSelection<T> {
+
+        private final Comparable<Object> weight;
+        private final T selection;
+
+        private WeightedSelection(Comparable<Object> weight, T selection) {
+            this.weight = weight;
+            this.selection = selection;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.aparnachaudhary.capacityplanner.forecast;
+
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.*;
+
+/**
+ * Generates the candidate cluster nodes of a capacity forecast from {@link ClusterNodeTemplate}s:
+ * the solver switches a candidate on by assigning a process to it, which costs the template cost.
+ * <p>
+ * The whole pool is generated before solving, but bounded so the value ranges stay small: only for an (AZ, node type)
+ * with processes, and per template only as many nodes as first fit decreasing needs to pack those processes
+ * on that template alone. That is enough for any mix of templates, but never a fixed maximum per AZ and template.
+ */
+public class CandidateClusterNodeGenerator {
+
+    /**
+     * @param problem its processes reference the instances of its AZ and node type lists, see {@link ClusterBalance#resolveReferences()}
+     * @param templates every template references an instance of {@link ClusterBalance#getNodeTypes()}
+     * @return the candidates, with ids after the highest id of {@link ClusterBalance#getClusterNodes()}
+     */
+    public List<ClusterNode> generate(ClusterBalance problem, List<ClusterNodeTemplate> templates) {
+
+        Map<Pair<AvailabilityZone, ClusterNodeType>, List<ClusterProcess>> processesMap = new LinkedHashMap<>();
+        problem.getClusterProcesses().forEach(process -> processesMap
+                .computeIfAbsent(Pair.of(process.getAvailabilityZone(), process.getClusterNodeType()), key -> new ArrayList<>())
+                .add(process));
+
+        long nextId = problem.getClusterNodes().stream().mapToLong(ClusterNode::getId).max().orElse(-1L) + 1L;
+        List<ClusterNode> candidates = new ArrayList<>();
+        for (Map.Entry<Pair<AvailabilityZone, ClusterNodeType>, List<ClusterProcess>> entry : processesMap.entrySet()) {
+            AvailabilityZone availabilityZone = entry.getKey().getLeft();
+            ClusterNodeType nodeType = entry.getKey().getRight();
+            for (ClusterNodeTemplate template : templates) {
+                if (template.getClusterNodeType() != nodeType) {
+                    continue;
+                }
+                int candidateCount = countFirstFitDecreasingNodes(entry.getValue(), template);
+                for (int i = 0; i < candidateCount; i++) {
+                    candidates.add(ClusterNode.builder()
+                            .id(nextId++)
+                            .name(template.getName() + "-" + availabilityZone.getName() + "-" + i)
+                            // Never changed, so the candidates can share it
+                            .capacity(template.getCapacity())
+                            .cost(template.getCost())
+                            .availabilityZone(availabilityZone)
+                            .clusterNodeType(nodeType)
+                            .template(template)
+                            .build());
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @return the number of template nodes first fit decreasing packs the processes on, ignoring the processes that never fit
+     */
+    static int countFirstFitDecreasingNodes(List<ClusterProcess> processes, ClusterNodeTemplate template) {
+
+        long[] capacity = template.getCapacity();
+        List<ClusterProcess> sortedProcesses = new ArrayList<>(processes);
+        // Largest share of the template first
+        sortedProcesses.sort(Comparator.comparingDouble((ClusterProcess process) -> getLargestShare(process, capacity)).reversed());
+
+        List<long[]> nodeRemainders = new ArrayList<>();
+        for (ClusterProcess process : sortedProcesses) {
+            if (!template.fits(process)) {
+                continue;
+            }
+            long[] usage = process.getUsage();
+            long[] nodeRemainder = nodeRemainders.stream()
+                    .filter(remainder -> fits(usage, remainder))
+                    .findFirst()
+                    .orElse(null);
+            if (nodeRemainder == null) {
+                nodeRemainder = capacity.clone();
+                nodeRemainders.add(nodeRemainder);
+            }
+            for (int i = 0; i < usage.length; i++) {
+                nodeRemainder[i] -= usage[i];
+            }
+        }
+        return nodeRemainders.size();
+    }
+
+    private static double getLargestShare(ClusterProcess process, long[] capacity) {
+        double largestShare = 0.0;
+        for (int i = 0; i < capacity.length; i++) {
+            if (capacity[i] > 0L) {
+                largestShare = Math.max(largestShare, (double) process.getUsage()[i] / capacity[i]);
+            }
+        }
+        return largestShare;
+    }
+
+    private static boolean fits(long[] usage, long[] remainder) {
+        for (int i = 0; i < usage.length; i++) {
+            if (usage[i] > remainder[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
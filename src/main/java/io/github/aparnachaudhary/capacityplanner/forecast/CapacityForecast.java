@@ -0,0 +1,81 @@
+package io.github.aparnachaudhary.capacityplanner.forecast;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.service.SolverJobStatus;
+import lombok.Builder;
+import lombok.Data;
+import org.apache.commons.lang3.builder.CompareToBuilder;
+
+import java.util.*;
+
+/**
+ * The cluster nodes to buy (and the existing ones to keep using) for the processes of a capacity forecast,
+ * counted per AZ, node type and template.
+ */
+@Data
+@Builder
+public class CapacityForecast {
+
+    private long jobId;
+    private SolverJobStatus status;
+    private String score;
+    // Every process fits without breaking a hard constraint
+    private boolean feasible;
+    private int unassignedProcessCount;
+    // The cost of the candidate cluster nodes that are used
+    private long purchaseCost;
+    private List<ClusterNodeCount> clusterNodeCounts;
+
+    /**
+     * @param solution a best solution of a problem with candidates, see {@link CandidateClusterNodeGenerator}
+     */
+    public static CapacityForecast of(long jobId, SolverJobStatus status, ClusterBalance solution) {
+
+        Set<ClusterNode> usedClusterNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        int unassignedProcessCount = 0;
+        for (ClusterProcess process : solution.getClusterProcesses()) {
+            if (process.getClusterNode() == null) {
+                unassignedProcessCount++;
+            } else {
+                usedClusterNodes.add(process.getClusterNode());
+            }
+        }
+
+        Map<List<String>, ClusterNodeCount> countMap = new HashMap<>();
+        long purchaseCost = 0L;
+        for (ClusterNode clusterNode : usedClusterNodes) {
+            String templateName = clusterNode.getTemplate() == null ? null : clusterNode.getTemplate().getName();
+            ClusterNodeCount clusterNodeCount = countMap.computeIfAbsent(
+                    Arrays.asList(clusterNode.getAvailabilityZone().getName(), clusterNode.getClusterNodeType().getName(), templateName),
+                    key -> ClusterNodeCount.builder()
+                            .availabilityZone(key.get(0))
+                            .clusterNodeType(key.get(1))
+                            .template(key.get(2))
+                            .build());
+            clusterNodeCount.setCount(clusterNodeCount.getCount() + 1);
+            clusterNodeCount.setCost(clusterNodeCount.getCost() + clusterNode.getCost());
+            if (clusterNode.getTemplate() != null) {
+                purchaseCost += clusterNode.getCost();
+            }
+        }
+        List<ClusterNodeCount> clusterNodeCounts = new ArrayList<>(countMap.values());
+        clusterNodeCounts.sort((a, b) -> new CompareToBuilder()
+                .append(a.getAvailabilityZone(), b.getAvailabilityZone())
+                .append(a.getClusterNodeType(), b.getClusterNodeType())
+                .append(a.getTemplate(), b.getTemplate())
+                .toComparison());
+
+        return CapacityForecast.builder()
+                .jobId(jobId)
+                .status(status)
+                .score(solution.getScore() == null ? null : solution.getScore().toString())
+                .feasible(solution.getScore() != null && solution.getScore().isSolutionInitialized()
+                        && solution.getScore().getHardScore() >= 0L)
+                .unassignedProcessCount(unassignedProcessCount)
+                .purchaseCost(purchaseCost)
+                .clusterNodeCounts(clusterNodeCounts)
+                .build();
+    }
+}
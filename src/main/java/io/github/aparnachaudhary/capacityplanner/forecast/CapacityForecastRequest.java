@@ -0,0 +1,22 @@
+package io.github.aparnachaudhary.capacityplanner.forecast;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNodeTemplate;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The processes to fit, for example next quarter's, and the cluster node templates to buy nodes from.
+ * Cluster nodes in the problem already exist: they are used first if that is cheaper.
+ */
+@Data
+@Builder
+public class CapacityForecastRequest {
+
+    // AZs, node types, processes and the existing cluster nodes, if any
+    private ClusterBalance problem;
+    // Their node type only needs an id
+    private List<ClusterNodeTemplate> clusterNodeTemplates;
+}
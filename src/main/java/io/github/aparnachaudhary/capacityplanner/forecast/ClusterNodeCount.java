@@ -0,0 +1,19 @@
+package io.github.aparnachaudhary.capacityplanner.forecast;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The used cluster nodes of one AZ, node type and template.
+ */
+@Data
+@Builder
+public class ClusterNodeCount {
+
+    private String availabilityZone;
+    private String clusterNodeType;
+    // Null for the existing cluster nodes
+    private String template;
+    private int count;
+    private long cost;
+}
@@ -0,0 +1,109 @@
+package io.github.aparnachaudhary.capacityplanner.generator;
+
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic {@link ClusterBalance} problems in the shape of the bundled CSV data
+ * (3 availability zones, 3 node types), but at any scale.
+ */
+public class ClusterBalanceGenerator {
+
+    private static final String[] AVAILABILITY_ZONE_NAMES = {"Zone1", "Zone2", "Zone3"};
+    private static final String[] NODE_TYPE_NAMES = {"COMPUTE", "EDGE", "STORAGE"};
+
+    // Resource vectors: cpu, memory, disk, networkBandwidth, gpu, iops, ephemeralStorage
+    // Per cpu, the nodes have more network bandwidth, IOPS and ephemeral storage than the processes need
+    private static final long[][] NODE_SHAPES = {
+            {2, 32, 4, 2000, 0, 1000, 40},
+            {4, 64, 4, 4000, 0, 2000, 40},
+            {8, 128, 8, 8000, 0, 4000, 80},
+            {16, 256, 16, 16000, 0, 8000, 160}
+    };
+    private static final long[] NODE_COSTS = {2000, 4000, 7500, 14000};
+
+    private static final long[][] PROCESS_SHAPES = {
+            {1, 1, 1, 500, 0, 100, 5},
+            {1, 2, 1, 500, 0, 200, 5},
+            {1, 4, 1, 500, 0, 300, 5},
+            {2, 8, 1, 1000, 0, 400, 5},
+            {2, 16, 2, 1500, 0, 600, 10}
+    };
+
+    private final Random random;
+
+    public ClusterBalanceGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param processCount number of processes
+     * @return a problem with one node per 4 processes (about 75% of the cpu in use), nothing assigned
+     */
+    public ClusterBalance createClusterBalance(int processCount) {
+        return createClusterBalance(Math.max(processCount / 4, AVAILABILITY_ZONE_NAMES.length * NODE_TYPE_NAMES.length), processCount);
+    }
+
+    public ClusterBalance createClusterBalance(int clusterNodeCount, int processCount) {
+
+        List<AvailabilityZone> availabilityZones = new ArrayList<>(AVAILABILITY_ZONE_NAMES.length);
+        for (int i = 0; i < AVAILABILITY_ZONE_NAMES.length; i++) {
+            availabilityZones.add(AvailabilityZone.builder().id((long) i).name(AVAILABILITY_ZONE_NAMES[i]).build());
+        }
+        List<ClusterNodeType> nodeTypes = new ArrayList<>(NODE_TYPE_NAMES.length);
+        for (int i = 0; i < NODE_TYPE_NAMES.length; i++) {
+            nodeTypes.add(ClusterNodeType.builder().id((long) i).name(NODE_TYPE_NAMES[i]).build());
+        }
+
+        List<ClusterNode> clusterNodes = new ArrayList<>(clusterNodeCount);
+        for (int i = 0; i < clusterNodeCount; i++) {
+            int shapeIndex = random.nextInt(NODE_SHAPES.length);
+            ClusterNodeType nodeType = nodeTypes.get(i % nodeTypes.size());
+            clusterNodes.add(ClusterNode.builder()
+                    .id((long) i)
+                    .name(nodeType.getName().toLowerCase() + "-" + i)
+                    // The vectors are never changed, so the nodes can share them
+                    .capacity(NODE_SHAPES[shapeIndex])
+                    .cost(NODE_COSTS[shapeIndex])
+                    .availabilityZone(availabilityZones.get((i / nodeTypes.size()) % availabilityZones.size()))
+                    .clusterNodeType(nodeType)
+                    .build());
+        }
+
+        List<ClusterProcess> processes = new ArrayList<>(processCount);
+        for (int i = 0; i < processCount; i++) {
+            processes.add(ClusterProcess.builder()
+                    .id((long) i)
+                    .name("process-" + i)
+                    .usage(PROCESS_SHAPES[random.nextInt(PROCESS_SHAPES.length)])
+                    .availabilityZone(availabilityZones.get(random.nextInt(availabilityZones.size())))
+                    .clusterNodeType(nodeTypes.get(random.nextInt(nodeTypes.size())))
+                    .build());
+        }
+
+        ClusterBalance clusterBalance = ClusterBalance.builder()
+                .id(0L)
+                .clusterNodes(clusterNodes)
+                .clusterProcesses(processes)
+                .availabilityZones(availabilityZones)
+                .nodeTypes(nodeTypes)
+                .build();
+        clusterBalance.initializeDerivedData();
+        return clusterBalance;
+    }
+
+    /**
+     * Assigns every process to a random node (or leaves it unassigned), ignoring AZ, node type and capacity,
+     * so every constraint gets exercised.
+     */
+    public void assignRandomly(ClusterBalance clusterBalance) {
+        List<ClusterNode> clusterNodes = clusterBalance.getClusterNodes();
+        for (ClusterProcess process : clusterBalance.getClusterProcesses()) {
+            int nodeIndex = random.nextInt(clusterNodes.size() + 1);
+            process.setClusterNode(nodeIndex == clusterNodes.size() ? null : clusterNodes.get(nodeIndex));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.aparnachaudhary.capacityplanner.importer;
+
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports cluster nodes and processes from CSV files of any size and persists them.
+ * <p>
+ * The CSV records are streamed and persisted in chunks of {@code capacityplanner.import.batch-size} entities,
+ * each chunk in its own transaction, which is flushed (as JDBC batches, see {@code hibernate.jdbc.batch_size})
+ * and cleared afterwards, so the persistence context never holds more than one chunk.
+ * The imported entities are kept as they were built, they are not read back from the database.
+ */
+@Component
+@Slf4j
+public class ClusterBalanceCsvImporter {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.withFirstRecordAsHeader();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+    private int batchSize;
+
+    public ClusterBalanceCsvImporter(PlatformTransactionManager transactionManager,
+                                     @Value("${capacityplanner.import.batch-size:1000}") int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public ClusterBalance importClusterBalance(Resource clusterNodesResource, Resource processesResource) throws IOException {
+
+        List<AvailabilityZone> availabilityZones = importAvailabilityZones();
+        List<ClusterNodeType> nodeTypes = importNodeTypes();
+        // Every node and process references the same AvailabilityZone and ClusterNodeType instances
+        Map<Long, AvailabilityZone> availabilityZoneMap = availabilityZones.stream()
+                .collect(Collectors.toMap(AvailabilityZone::getId, Function.identity()));
+        Map<Long, ClusterNodeType> nodeTypeMap = nodeTypes.stream()
+                .collect(Collectors.toMap(ClusterNodeType::getId, Function.identity()));
+
+        List<ClusterNode> clusterNodes = importCsv(clusterNodesResource,
+                (record, index) -> buildClusterNode(record, index, availabilityZoneMap, nodeTypeMap));
+        Map<Long, ClusterNode> clusterNodeMap = clusterNodes.stream()
+                .collect(Collectors.toMap(ClusterNode::getId, Function.identity()));
+        List<ClusterProcess> processes = importCsv(processesResource,
+                (record, index) -> buildClusterProcess(record, index, availabilityZoneMap, nodeTypeMap, clusterNodeMap));
+
+        ClusterBalance clusterBalance = ClusterBalance.builder()
+                .id(0L)
+                .clusterNodes(clusterNodes)
+                .clusterProcesses(processes)
+                .availabilityZones(availabilityZones)
+                .nodeTypes(nodeTypes)
+                .build();
+        clusterBalance.initializeDerivedData();
+        return clusterBalance;
+    }
+
+    private List<AvailabilityZone> importAvailabilityZones() {
+
+        List<AvailabilityZone> availabilityZones = new ArrayList<>(3);
+        availabilityZones.add(AvailabilityZone.builder().id(0L).name("Zone1").build());
+        availabilityZones.add(AvailabilityZone.builder().id(1L).name("Zone2").build());
+        availabilityZones.add(AvailabilityZone.builder().id(2L).name("Zone3").build());
+        persist(availabilityZones);
+        return availabilityZones;
+    }
+
+    private List<ClusterNodeType> importNodeTypes() {
+
+        List<ClusterNodeType> nodeTypes = new ArrayList<>(3);
+        nodeTypes.add(ClusterNodeType.builder().id(0L).name("COMPUTE").build());
+        nodeTypes.add(ClusterNodeType.builder().id(1L).name("EDGE").build());
+        nodeTypes.add(ClusterNodeType.builder().id(2L).name("STORAGE").build());
+        persist(nodeTypes);
+        return nodeTypes;
+    }
+
+    private <T> List<T> importCsv(Resource resource, RecordMapper<T> recordMapper) throws IOException {
+
+        long startTimeMillis = System.currentTimeMillis();
+        List<T> resultList = new ArrayList<>(1024);
+        List<T> chunk = new ArrayList<>(batchSize);
+
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8);
+             CSVParser parser = CSV_FORMAT.parse(reader)) {
+            long index = 0L;
+            for (CSVRecord record : parser) {
+                T entity = recordMapper.map(record, index++);
+                resultList.add(entity);
+                chunk.add(entity);
+                if (chunk.size() == batchSize) {
+                    persist(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        persist(chunk);
+
+        log.info("Imported {} rows from {} in {} ms.", resultList.size(), resource.getDescription(),
+                System.currentTimeMillis() - startTimeMillis);
+        return resultList;
+    }
+
+    private void persist(List<?> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            // persist instead of merge (what saveAll does with assigned ids): no select per entity
+            chunk.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+    }
+
+    private ClusterNode buildClusterNode(CSVRecord record, long index,
+                                         Map<Long, AvailabilityZone> availabilityZoneMap, Map<Long, ClusterNodeType> nodeTypeMap) {
+        return ClusterNode.builder()
+                .id(index)
+                .name(record.get("name"))
+                .capacity(parseResourceVector(record))
+                .availabilityZone(lookUp(availabilityZoneMap, record, "availabilityZone"))
+                .clusterNodeType(lookUp(nodeTypeMap, record, "clusterNodeType"))
+                .cost(Long.parseLong(record.get("cost")))
+                .build();
+    }
+
+    /**
+     * The optional columns "clusterNode" (the id, which is the row index, of the node a process is running on)
+     * and "pinned" (true to keep it there) describe the processes that are already running:
+     * their cluster node is also their original one, moving them elsewhere is a migration.
+     */
+    private ClusterProcess buildClusterProcess(CSVRecord record, long index,
+                                               Map<Long, AvailabilityZone> availabilityZoneMap, Map<Long, ClusterNodeType> nodeTypeMap,
+                                               Map<Long, ClusterNode> clusterNodeMap) {
+        ClusterNode clusterNode = isSet(record, "clusterNode") ? lookUp(clusterNodeMap, record, "clusterNode") : null;
+        return ClusterProcess.builder()
+                .id(index)
+                .name(record.get("name"))
+                .usage(parseResourceVector(record))
+                .availabilityZone(lookUp(availabilityZoneMap, record, "availabilityZone"))
+                .clusterNodeType(lookUp(nodeTypeMap, record, "clusterNodeType"))
+                .clusterNode(clusterNode)
+                .originalClusterNode(clusterNode)
+                .pinned(isSet(record, "pinned") && Boolean.parseBoolean(record.get("pinned").trim()))
+                .build();
+    }
+
+    private static boolean isSet(CSVRecord record, String column) {
+        return record.isSet(column) && !record.get(column).trim().isEmpty();
+    }
+
+    /**
+     * A missing resource column or empty value is zero, so files from before a resource was added still import.
+     */
+    private static long[] parseResourceVector(CSVRecord record) {
+        return ResourceVector.parse(key -> record.isSet(key) ? record.get(key) : null);
+    }
+
+    private static <T> T lookUp(Map<Long, T> map, CSVRecord record, String column) {
+        T value = map.get(Long.parseLong(record.get(column)));
+        if (value == null) {
+            throw new IllegalArgumentException("The " + column + " (" + record.get(column)
+                    + ") of CSV record (" + record.getRecordNumber() + ") does not exist.");
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface RecordMapper<T> {
+
+        T map(CSVRecord record, long index);
+    }
+}
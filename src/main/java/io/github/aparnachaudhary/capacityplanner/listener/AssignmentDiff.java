@@ -0,0 +1,23 @@
+package io.github.aparnachaudhary.capacityplanner.listener;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What changed since the previous {@link AssignmentDiff} sent to the same subscriber:
+ * applied in order on top of each other, they give the assignment of the latest best solution.
+ */
+@Data
+@Builder
+public class AssignmentDiff {
+
+    private String score;
+    /**
+     * Cluster node id (null if unassigned) by process id, only for new processes and changed assignments.
+     */
+    private Map<Long, Long> assignments;
+    private List<Long> removedProcessIds;
+}
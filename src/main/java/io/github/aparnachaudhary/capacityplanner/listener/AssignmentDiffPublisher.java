@@ -0,0 +1,151 @@
+package io.github.aparnachaudhary.capacityplanner.listener;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import lombok.extern.slf4j.Slf4j;
+import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the best solutions of a solver as {@link AssignmentDiff}s to its subscribers.
+ * <p>
+ * The solver thread only hands over the new best solution (constant time):
+ * improvements are coalesced and at most one diff per {@code throttleMillis} is computed and sent
+ * on the (single threaded) publisher executor, which owns all other state, so no locking is needed.
+ * A new subscriber first gets the complete assignment published so far, then only the changes.
+ */
+@Slf4j
+public class AssignmentDiffPublisher implements SolverEventListener<ClusterBalance> {
+
+    private final ScheduledExecutorService publisherExecutor;
+    private final long throttleMillis;
+
+    private final AtomicReference<ClusterBalance> pendingSolution = new AtomicReference<>();
+    private final AtomicBoolean publishScheduled = new AtomicBoolean(false);
+
+    // Only accessed on the publisher thread
+    private final List<AssignmentDiffSubscriber> subscribers = new ArrayList<>();
+    private Map<Long, Long> publishedAssignments = new HashMap<>();
+    private String publishedScore;
+    private long lastPublishMillis = 0L;
+    private boolean closed = false;
+
+    /**
+     * @param publisherExecutor must be single threaded, can be shared by several publishers
+     */
+    public AssignmentDiffPublisher(ScheduledExecutorService publisherExecutor, long throttleMillis) {
+        this.publisherExecutor = publisherExecutor;
+        this.throttleMillis = throttleMillis;
+    }
+
+    @Override
+    public void bestSolutionChanged(BestSolutionChangedEvent<ClusterBalance> event) {
+        // Otherwise the diff could undo a change that is already accepted
+        if (event.isEveryProblemFactChangeProcessed()) {
+            pendingSolution.set(event.getNewBestSolution());
+            schedulePublish();
+        }
+    }
+
+    private void schedulePublish() {
+        if (publishScheduled.compareAndSet(false, true)) {
+            // The throttle is applied by publish(), which reads lastPublishMillis on the publisher thread
+            publisherExecutor.execute(this::publish);
+        }
+    }
+
+    public void subscribe(AssignmentDiffSubscriber subscriber) {
+        publisherExecutor.execute(() -> {
+            AssignmentDiff snapshot = AssignmentDiff.builder()
+                    .score(publishedScore)
+                    .assignments(new HashMap<>(publishedAssignments))
+                    .removedProcessIds(Collections.emptyList())
+                    .build();
+            if (send(subscriber, snapshot)) {
+                if (closed) {
+                    subscriber.close();
+                } else {
+                    subscribers.add(subscriber);
+                }
+            }
+        });
+    }
+
+    /**
+     * Publishes the last best solution, if still pending, and closes all subscribers.
+     * Call when the solver is done.
+     */
+    public void close() {
+        publisherExecutor.execute(() -> {
+            publishPending();
+            closed = true;
+            subscribers.forEach(AssignmentDiffSubscriber::close);
+            subscribers.clear();
+        });
+    }
+
+    private void publish() {
+        long delayMillis = lastPublishMillis + throttleMillis - System.currentTimeMillis();
+        if (delayMillis > 0L) {
+            // Still scheduled, so the solver thread does not schedule another publish meanwhile
+            publisherExecutor.schedule(this::publish, delayMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        // Cleared before taking the pending solution: a later best solution schedules its own publish
+        publishScheduled.set(false);
+        publishPending();
+    }
+
+    private void publishPending() {
+        ClusterBalance solution = pendingSolution.getAndSet(null);
+        if (solution == null || closed) {
+            return;
+        }
+        lastPublishMillis = System.currentTimeMillis();
+
+        Map<Long, Long> assignments = new HashMap<>(solution.getClusterProcesses().size());
+        Map<Long, Long> changedAssignments = new HashMap<>();
+        for (ClusterProcess process : solution.getClusterProcesses()) {
+            ClusterNode clusterNode = process.getClusterNode();
+            Long clusterNodeId = clusterNode == null ? null : clusterNode.getId();
+            assignments.put(process.getId(), clusterNodeId);
+            if (!publishedAssignments.containsKey(process.getId())
+                    || !Objects.equals(publishedAssignments.get(process.getId()), clusterNodeId)) {
+                changedAssignments.put(process.getId(), clusterNodeId);
+            }
+        }
+        List<Long> removedProcessIds = new ArrayList<>();
+        publishedAssignments.keySet().forEach(processId -> {
+            if (!assignments.containsKey(processId)) {
+                removedProcessIds.add(processId);
+            }
+        });
+        publishedAssignments = assignments;
+        publishedScore = String.valueOf(solution.getScore());
+
+        AssignmentDiff assignmentDiff = AssignmentDiff.builder()
+                .score(publishedScore)
+                .assignments(changedAssignments)
+                .removedProcessIds(removedProcessIds)
+                .build();
+        subscribers.removeIf(subscriber -> !send(subscriber, assignmentDiff));
+    }
+
+    private static boolean send(AssignmentDiffSubscriber subscriber, AssignmentDiff assignmentDiff) {
+        try {
+            subscriber.send(assignmentDiff);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unsubscribed ({}) after it failed to receive an assignment diff.", subscriber, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.aparnachaudhary.capacityplanner.listener;
+
+import java.io.IOException;
+
+/**
+ * Called on the publisher thread of {@link AssignmentDiffPublisher}, never on a solver thread.
+ */
+public interface AssignmentDiffSubscriber {
+
+    /**
+     * @throws IOException to unsubscribe, for example when the client has disconnected
+     */
+    void send(AssignmentDiff assignmentDiff) throws IOException;
+
+    /**
+     * No more diffs will be sent.
+     */
+    void close();
+}
@@ -0,0 +1,12 @@
+package io.github.aparnachaudhary.capacityplanner.metrics;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BestScoreEvent {
+
+    private long timeMillisSpent;
+    private String score;
+}
@@ -0,0 +1,13 @@
+package io.github.aparnachaudhary.capacityplanner.metrics;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ConstraintMatchCount {
+
+    private String constraintName;
+    private int matchCount;
+    private String score;
+}
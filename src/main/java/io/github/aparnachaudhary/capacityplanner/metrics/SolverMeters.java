@@ -0,0 +1,117 @@
+package io.github.aparnachaudhary.capacityplanner.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The Micrometer meters of all solvers with the same {@code solver} tag, see {@link SolverMetrics}.
+ * Counters and timers add up over those solvers, gauges show the solver that reported last.
+ */
+public class SolverMeters {
+
+    private final MeterRegistry meterRegistry;
+    private final String solverName;
+
+    private final Counter stepCounter;
+    private final Counter evaluatedMoveCounter;
+    private final Counter acceptedMoveCounter;
+    private final Counter scoreCalculationCounter;
+    private final Timer timeToFeasibleTimer;
+    private final Timer solvingTimer;
+
+    private final AtomicLong scoreCalculationSpeed = new AtomicLong();
+    private final AtomicReference<HardMediumSoftLongScore> bestScore = new AtomicReference<>(HardMediumSoftLongScore.ZERO);
+    private final Map<String, AtomicLong> constraintMatchCountMap = new ConcurrentHashMap<>();
+
+    SolverMeters(MeterRegistry meterRegistry, String solverName) {
+        this.meterRegistry = meterRegistry;
+        this.solverName = solverName;
+        stepCounter = Counter.builder("capacityplanner.solver.steps")
+                .tag("solver", solverName)
+                .description("Construction heuristic and local search steps")
+                .register(meterRegistry);
+        evaluatedMoveCounter = Counter.builder("capacityplanner.solver.moves.evaluated")
+                .tag("solver", solverName)
+                .description("Local search moves evaluated")
+                .register(meterRegistry);
+        acceptedMoveCounter = Counter.builder("capacityplanner.solver.moves.accepted")
+                .tag("solver", solverName)
+                .description("Local search moves accepted by the acceptor")
+                .register(meterRegistry);
+        scoreCalculationCounter = Counter.builder("capacityplanner.solver.score.calculations")
+                .tag("solver", solverName)
+                .description("Score calculations, their rate is the score calculation speed")
+                .register(meterRegistry);
+        timeToFeasibleTimer = Timer.builder("capacityplanner.solver.time.to.feasible")
+                .tag("solver", solverName)
+                .description("Time spent until the first feasible best solution")
+                .register(meterRegistry);
+        solvingTimer = Timer.builder("capacityplanner.solver.solving")
+                .tag("solver", solverName)
+                .description("Time spent per solver run")
+                .register(meterRegistry);
+        Gauge.builder("capacityplanner.solver.score.calculation.speed", scoreCalculationSpeed, AtomicLong::get)
+                .tag("solver", solverName)
+                .description("Score calculations per second of the current run")
+                .register(meterRegistry);
+        Gauge.builder("capacityplanner.solver.best.score", bestScore, score -> score.get().getHardScore())
+                .tag("solver", solverName).tag("level", "hard")
+                .register(meterRegistry);
+        Gauge.builder("capacityplanner.solver.best.score", bestScore, score -> score.get().getMediumScore())
+                .tag("solver", solverName).tag("level", "medium")
+                .register(meterRegistry);
+        Gauge.builder("capacityplanner.solver.best.score", bestScore, score -> score.get().getSoftScore())
+                .tag("solver", solverName).tag("level", "soft")
+                .register(meterRegistry);
+    }
+
+    void recordStep(long evaluatedMoveCount, long acceptedMoveCount) {
+        stepCounter.increment();
+        evaluatedMoveCounter.increment(evaluatedMoveCount);
+        acceptedMoveCounter.increment(acceptedMoveCount);
+    }
+
+    void recordScoreCalculations(long scoreCalculationCount, long scoreCalculationSpeed) {
+        scoreCalculationCounter.increment(scoreCalculationCount);
+        this.scoreCalculationSpeed.set(scoreCalculationSpeed);
+    }
+
+    void recordBestScore(HardMediumSoftLongScore score) {
+        bestScore.set(score);
+    }
+
+    void recordTimeToFeasible(long timeMillisSpent) {
+        timeToFeasibleTimer.record(timeMillisSpent, TimeUnit.MILLISECONDS);
+    }
+
+    void recordSolvingEnded(long timeMillisSpent) {
+        solvingTimer.record(timeMillisSpent, TimeUnit.MILLISECONDS);
+    }
+
+    void recordConstraintMatchCounts(List<ConstraintMatchCount> constraintMatchCounts) {
+        // A constraint without matches is not in the list
+        constraintMatchCountMap.values().forEach(matchCount -> matchCount.set(0L));
+        constraintMatchCounts.forEach(constraintMatchCount -> constraintMatchCountMap
+                .computeIfAbsent(constraintMatchCount.getConstraintName(), this::registerConstraintMatchGauge)
+                .set(constraintMatchCount.getMatchCount()));
+    }
+
+    private AtomicLong registerConstraintMatchGauge(String constraintName) {
+        AtomicLong matchCount = new AtomicLong();
+        Gauge.builder("capacityplanner.solver.constraint.matches", matchCount, AtomicLong::get)
+                .tag("solver", solverName).tag("constraint", constraintName)
+                .description("Constraint matches in the best solution of the last solver run")
+                .register(meterRegistry);
+        return matchCount;
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.aparnachaudhary.capacityplanner.metrics;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplainer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Instruments solvers: their statistics are kept per solver and exported as Micrometer meters
+ * ({@code /actuator/metrics/capacityplanner.solver.*}) tagged by solver name.
+ */
+@Component
+public class SolverMetrics {
+
+    private MeterRegistry meterRegistry;
+    private Map<String, SolverMeters> solverMetersMap = new ConcurrentHashMap<>();
+    // Counts the constraint matches for the meters, off the solver threads
+    private ExecutorService constraintMatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ConstraintMatchCounter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SolverMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Call before solving.
+     *
+     * @param solverName the {@code solver} tag of the meters, keep the number of distinct names low
+     * @param scoreExplainer of the same solver, shared so its cached explanation is not computed twice
+     * @return the statistics of this solver, filled while it solves
+     */
+    public SolverStatistics instrument(Solver<ClusterBalance> solver, String solverName, ScoreExplainer scoreExplainer) {
+        SolverStatistics statistics = new SolverStatistics(scoreExplainer);
+        SolverStatisticsListener listener = new SolverStatisticsListener(statistics,
+                solverMetersMap.computeIfAbsent(solverName, key -> new SolverMeters(meterRegistry, solverName)),
+                constraintMatchExecutor);
+        solver.addEventListener(listener);
+        ((DefaultSolver<ClusterBalance>) solver).addPhaseLifecycleListener(listener);
+        return statistics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        constraintMatchExecutor.shutdownNow();
+    }
+}
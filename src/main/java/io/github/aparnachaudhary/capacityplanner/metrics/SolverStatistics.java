@@ -0,0 +1,102 @@
+package io.github.aparnachaudhary.capacityplanner.metrics;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplainer;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Counts of one solver, over all its runs (a daemon solver restarts after every problem fact change).
+ * Written by the solver thread through {@link SolverStatisticsListener}, readable from any thread.
+ */
+@Getter
+public class SolverStatistics {
+
+    private static final int MAX_BEST_SCORE_TIMELINE_SIZE = 1000;
+
+    private volatile long stepCount;
+    private volatile long evaluatedMoveCount;
+    private volatile long acceptedMoveCount;
+    private volatile long scoreCalculationCount;
+    /**
+     * Score calculations per second of the current or last run.
+     */
+    private volatile long scoreCalculationSpeed;
+    /**
+     * Null until the first feasible best solution.
+     */
+    private volatile Long timeToFeasibleMillis;
+    /**
+     * The best solution of the last finished run, null until then.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile ClusterBalance lastRunBestSolution;
+    @Getter(AccessLevel.NONE)
+    private final ScoreExplainer scoreExplainer;
+
+    private final Deque<BestScoreEvent> bestScoreTimeline = new ArrayDeque<>();
+
+    /**
+     * @param scoreExplainer of the same solver, counts the constraint matches
+     */
+    public SolverStatistics(ScoreExplainer scoreExplainer) {
+        this.scoreExplainer = scoreExplainer;
+    }
+
+    /**
+     * Computed on request on the calling thread, not by the solver thread at the end of every run:
+     * the explanation of the solution is cached, so only the first request per run rescores it.
+     *
+     * @return of the best solution of the last finished run, empty until then
+     */
+    public List<ConstraintMatchCount> getConstraintMatchCounts() {
+        ClusterBalance solution = lastRunBestSolution;
+        if (solution == null) {
+            return Collections.emptyList();
+        }
+        return scoreExplainer.explain(solution).getConstraintMatchTotals();
+    }
+
+    /**
+     * @return the last {@value #MAX_BEST_SCORE_TIMELINE_SIZE} new best scores, oldest first
+     */
+    public List<BestScoreEvent> getBestScoreTimeline() {
+        synchronized (bestScoreTimeline) {
+            return new ArrayList<>(bestScoreTimeline);
+        }
+    }
+
+    void addStep(long evaluatedMoveCount, long acceptedMoveCount) {
+        stepCount++;
+        this.evaluatedMoveCount += evaluatedMoveCount;
+        this.acceptedMoveCount += acceptedMoveCount;
+    }
+
+    void addScoreCalculations(long scoreCalculationCount, long scoreCalculationSpeed) {
+        this.scoreCalculationCount += scoreCalculationCount;
+        this.scoreCalculationSpeed = scoreCalculationSpeed;
+    }
+
+    void addBestScore(BestScoreEvent bestScoreEvent) {
+        synchronized (bestScoreTimeline) {
+            if (bestScoreTimeline.size() == MAX_BEST_SCORE_TIMELINE_SIZE) {
+                bestScoreTimeline.removeFirst();
+            }
+            bestScoreTimeline.addLast(bestScoreEvent);
+        }
+    }
+
+    void setTimeToFeasibleMillis(Long timeToFeasibleMillis) {
+        this.timeToFeasibleMillis = timeToFeasibleMillis;
+    }
+
+    void setLastRunBestSolution(ClusterBalance lastRunBestSolution) {
+        this.lastRunBestSolution = lastRunBestSolution;
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.aparnachaudhary.capacityplanner.metrics;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import lombok.extern.slf4j.Slf4j;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import org.optaplanner.core.impl.localsearch.scope.LocalSearchStepScope;
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListenerAdapter;
+import org.optaplanner.core.impl.phase.scope.AbstractStepScope;
+import org.optaplanner.core.impl.solver.scope.DefaultSolverScope;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills a {@link SolverStatistics} and, if not null, the {@link SolverMeters} from the solver and phase lifecycle events.
+ * Every event takes constant time on the solver thread: the constraint matches are only counted on request,
+ * and for the meters by the constraint match executor, at most once per run.
+ */
+@Slf4j
+public class SolverStatisticsListener extends PhaseLifecycleListenerAdapter<ClusterBalance>
+        implements SolverEventListener<ClusterBalance> {
+
+    private final SolverStatistics statistics;
+    private final SolverMeters meters;
+    private final Executor constraintMatchExecutor;
+    // A daemon solver can end runs faster than their constraint matches are counted, only the last run counts
+    private final AtomicBoolean constraintMatchCountScheduled = new AtomicBoolean(false);
+
+    private long lastScoreCalculationCount;
+
+    /**
+     * @param meters null to only fill the statistics
+     * @param constraintMatchExecutor counts the constraint matches for the meters, ignored if they are null
+     */
+    public SolverStatisticsListener(SolverStatistics statistics, SolverMeters meters, Executor constraintMatchExecutor) {
+        this.statistics = statistics;
+        this.meters = meters;
+        this.constraintMatchExecutor = constraintMatchExecutor;
+    }
+
+    @Override
+    public void solvingStarted(DefaultSolverScope<ClusterBalance> solverScope) {
+        // The score calculation count restarts with every run
+        lastScoreCalculationCount = 0L;
+    }
+
+    @Override
+    public void stepEnded(AbstractStepScope<ClusterBalance> stepScope) {
+        long evaluatedMoveCount = 0L;
+        long acceptedMoveCount = 0L;
+        if (stepScope instanceof LocalSearchStepScope) {
+            LocalSearchStepScope<ClusterBalance> localSearchStepScope = (LocalSearchStepScope<ClusterBalance>) stepScope;
+            evaluatedMoveCount = nullToZero(localSearchStepScope.getSelectedMoveCount());
+            acceptedMoveCount = nullToZero(localSearchStepScope.getAcceptedMoveCount());
+        }
+        statistics.addStep(evaluatedMoveCount, acceptedMoveCount);
+        DefaultSolverScope<ClusterBalance> solverScope = stepScope.getPhaseScope().getSolverScope();
+        addScoreCalculations(solverScope.getScoreCalculationCount(), solverScope.calculateTimeMillisSpentUpToNow());
+        if (meters != null) {
+            meters.recordStep(evaluatedMoveCount, acceptedMoveCount);
+        }
+    }
+
+    @Override
+    public void bestSolutionChanged(BestSolutionChangedEvent<ClusterBalance> event) {
+        HardMediumSoftLongScore score = event.getNewBestSolution().getScore();
+        statistics.addBestScore(BestScoreEvent.builder()
+                .timeMillisSpent(event.getTimeMillisSpent())
+                .score(score.toString())
+                .build());
+        boolean firstFeasible = score.isFeasible() && statistics.getTimeToFeasibleMillis() == null;
+        if (firstFeasible) {
+            statistics.setTimeToFeasibleMillis(event.getTimeMillisSpent());
+        }
+        if (meters != null) {
+            meters.recordBestScore(score);
+            if (firstFeasible) {
+                meters.recordTimeToFeasible(event.getTimeMillisSpent());
+            }
+        }
+    }
+
+    @Override
+    public void solvingEnded(DefaultSolverScope<ClusterBalance> solverScope) {
+        // The ending time is only set after this event
+        long timeMillisSpent = solverScope.calculateTimeMillisSpentUpToNow();
+        // Includes the score calculations of the move threads, only added now
+        addScoreCalculations(solverScope.getScoreCalculationCount(), timeMillisSpent);
+        statistics.setLastRunBestSolution(solverScope.getBestSolution());
+        if (meters != null) {
+            meters.recordSolvingEnded(timeMillisSpent);
+            if (constraintMatchCountScheduled.compareAndSet(false, true)) {
+                constraintMatchExecutor.execute(this::recordConstraintMatchCounts);
+            }
+        }
+    }
+
+    private void recordConstraintMatchCounts() {
+        // Cleared first: a run that ends meanwhile schedules its own count
+        constraintMatchCountScheduled.set(false);
+        try {
+            meters.recordConstraintMatchCounts(statistics.getConstraintMatchCounts());
+        } catch (RuntimeException e) {
+            log.warn("Could not count the constraint matches of the best solution.", e);
+        }
+    }
+
+    private void addScoreCalculations(long scoreCalculationCount, long timeMillisSpent) {
+        long delta = scoreCalculationCount - lastScoreCalculationCount;
+        lastScoreCalculationCount = scoreCalculationCount;
+        statistics.addScoreCalculations(delta, scoreCalculationCount * 1000L / Math.max(1L, timeMillisSpent));
+        if (meters != null) {
+            meters.recordScoreCalculations(delta, statistics.getScoreCalculationSpeed());
+        }
+    }
+
+    private static long nullToZero(Long count) {
+        return count == null ? 0L : count;
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.aparnachaudhary.capacityplanner.repository;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalancePlan;
+import org.springframework.data.repository.PagingAndSortingRepository;
+
+import java.util.Optional;
+
+public interface ClusterBalancePlanRepository extends PagingAndSortingRepository<ClusterBalancePlan, Long> {
+
+    Optional<ClusterBalancePlan> findFirstByOrderBySavedAtDescIdDesc();
+}
@@ -1,7 +1,21 @@
 package io.github.aparnachaudhary.capacityplanner.repository;
 
 import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ClusterProcessRepository extends PagingAndSortingRepository<ClusterProcess, Long> {
+
+    @Query("select e.id from ClusterProcess e")
+    List<Long> findAllIds();
+
+    // One bulk delete, not a select and a delete per entity like deleteAll(Iterable)
+    @Modifying
+    @Query("delete from ClusterProcess e where e.id in :ids")
+    void deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,50 @@
+package io.github.aparnachaudhary.capacityplanner.rest;
+
+import io.github.aparnachaudhary.capacityplanner.forecast.CapacityForecast;
+import io.github.aparnachaudhary.capacityplanner.forecast.CapacityForecastRequest;
+import io.github.aparnachaudhary.capacityplanner.service.CapacityForecastService;
+import io.github.aparnachaudhary.capacityplanner.service.SolverJob;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Capacity forecasts: submit the processes and the cluster node templates (202 with the job id),
+ * then poll the node counts to buy. Cancel or remove a forecast through {@code /api/solver-jobs/{jobId}}.
+ */
+@RestController
+@RequestMapping("/api/capacity-forecasts")
+public class CapacityForecastController {
+
+    private CapacityForecastService forecastService;
+
+    public CapacityForecastController(CapacityForecastService forecastService) {
+        this.forecastService = forecastService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public SolverJob submit(@RequestBody CapacityForecastRequest request) {
+        return forecastService.submit(request);
+    }
+
+    @GetMapping("/{jobId}")
+    public CapacityForecast getForecast(@PathVariable long jobId) {
+        return forecastService.getForecast(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "The capacity forecast (" + jobId + ") does not exist."));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgument(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleRejectedExecution(RejectedExecutionException e) {
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.aparnachaudhary.capacityplanner.rest;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalanceConstraintConfiguration;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalancePlan;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplanation;
+import io.github.aparnachaudhary.capacityplanner.metrics.SolverStatistics;
+import io.github.aparnachaudhary.capacityplanner.service.ClusterBalanceSolverService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Real-time planning API: changes are accepted (202) and planned by the running solver,
+ * poll {@code GET /api/cluster-balance} for the new best solution or stream {@code /assignment-diffs}.
+ */
+@RestController
+@RequestMapping("/api/cluster-balance")
+public class ClusterBalanceController {
+
+    private ClusterBalanceSolverService solverService;
+
+    public ClusterBalanceController(ClusterBalanceSolverService solverService) {
+        this.solverService = solverService;
+    }
+
+    @GetMapping
+    public ClusterBalance getBestSolution() {
+        ClusterBalance bestSolution = solverService.getBestSolution();
+        if (bestSolution == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The solver has not started solving yet.");
+        }
+        return bestSolution;
+    }
+
+    /**
+     * @param limit the maximum number of (the worst) indictments per type
+     */
+    @GetMapping("/score-explanation")
+    public ScoreExplanation explainBestScore(@RequestParam(defaultValue = "10") int limit) {
+        return solverService.explainBestScore().limit(limit);
+    }
+
+    @GetMapping("/statistics")
+    public SolverStatistics getStatistics() {
+        SolverStatistics statistics = solverService.getStatistics();
+        if (statistics == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The solver has not started solving yet.");
+        }
+        return statistics;
+    }
+
+    /**
+     * @return the last saved plan, also of a previous run
+     */
+    @GetMapping("/plan")
+    public ClusterBalancePlan getLastPlan() {
+        return solverService.findLastPlan()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No plan has been saved yet."));
+    }
+
+    /**
+     * Saves the current best solution now, instead of waiting for the next periodic save.
+     */
+    @PostMapping("/plan")
+    public ClusterBalancePlan savePlan() {
+        return solverService.savePlan();
+    }
+
+    /**
+     * Sends the complete assignment, then only the changed assignments of the (throttled) new best solutions.
+     */
+    @GetMapping("/assignment-diffs")
+    public SseEmitter streamAssignmentDiffs() {
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        solverService.subscribe(new SseAssignmentDiffSubscriber(emitter));
+        return emitter;
+    }
+
+    @PostMapping("/processes")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ClusterProcess addClusterProcess(@RequestBody ClusterProcess process) {
+        return solverService.addClusterProcess(process);
+    }
+
+    @DeleteMapping("/processes/{id}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void removeClusterProcess(@PathVariable long id) {
+        if (!solverService.removeClusterProcess(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The process (" + id + ") does not exist.");
+        }
+    }
+
+    /**
+     * @param pinned true keeps the process on its current cluster node, false lets the solver move it again
+     */
+    @PutMapping("/processes/{id}/pinned")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void pinClusterProcess(@PathVariable long id, @RequestBody boolean pinned) {
+        if (!solverService.pinClusterProcess(id, pinned)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The process (" + id + ") does not exist.");
+        }
+    }
+
+    @PostMapping("/nodes")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ClusterNode addClusterNode(@RequestBody ClusterNode clusterNode) {
+        return solverService.addClusterNode(clusterNode);
+    }
+
+    @DeleteMapping("/nodes/{id}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void removeClusterNode(@PathVariable long id) {
+        if (!solverService.removeClusterNode(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The cluster node (" + id + ") does not exist.");
+        }
+    }
+
+    /**
+     * Replaces the constraint weights, a missing weight gets its default, zero disables the constraint.
+     */
+    @PutMapping("/constraint-configuration")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void updateConstraintConfiguration(@RequestBody ClusterBalanceConstraintConfiguration constraintConfiguration) {
+        solverService.updateConstraintConfiguration(constraintConfiguration);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgument(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleIllegalState(IllegalStateException e) {
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.aparnachaudhary.capacityplanner.rest;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplanation;
+import io.github.aparnachaudhary.capacityplanner.service.ClusterBalanceSolverManager;
+import io.github.aparnachaudhary.capacityplanner.service.SolverJob;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Solver jobs for independent problems, such as what-if plans: submit a problem (202 with the job id),
+ * then poll the job and its best solution or stream the assignment changes as server-sent events.
+ */
+@RestController
+@RequestMapping("/api/solver-jobs")
+public class SolverJobController {
+
+    private ClusterBalanceSolverManager solverManager;
+
+    public SolverJobController(ClusterBalanceSolverManager solverManager) {
+        this.solverManager = solverManager;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public SolverJob submit(@RequestBody ClusterBalance problem) {
+        // Deserialized references are copies, the solver needs the instances of the problem fact lists
+        problem.resolveReferences();
+        problem.initializeDerivedData();
+        return solverManager.submit(problem);
+    }
+
+    @GetMapping
+    public Collection<SolverJob> getSolverJobs() {
+        return solverManager.getSolverJobs();
+    }
+
+    @GetMapping("/{jobId}")
+    public SolverJob getSolverJob(@PathVariable long jobId) {
+        return findSolverJob(jobId);
+    }
+
+    @GetMapping("/{jobId}/best-solution")
+    public ClusterBalance getBestSolution(@PathVariable long jobId) {
+        return findSolverJob(jobId).getBestSolution();
+    }
+
+    /**
+     * @param limit the maximum number of (the worst) indictments per type
+     */
+    @GetMapping("/{jobId}/score-explanation")
+    public ScoreExplanation explainBestScore(@PathVariable long jobId, @RequestParam(defaultValue = "10") int limit) {
+        return findSolverJob(jobId).explainBestScore().limit(limit);
+    }
+
+    /**
+     * Sends the complete assignment, then only the changed assignments of the (throttled) new best solutions,
+     * until the job is finished.
+     */
+    @GetMapping("/{jobId}/assignment-diffs")
+    public SseEmitter streamAssignmentDiffs(@PathVariable long jobId) {
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        findSolverJob(jobId).subscribe(new SseAssignmentDiffSubscriber(emitter));
+        return emitter;
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public SolverJob cancel(@PathVariable long jobId) {
+        SolverJob solverJob = findSolverJob(jobId);
+        solverManager.cancel(jobId);
+        return solverJob;
+    }
+
+    @DeleteMapping("/{jobId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void remove(@PathVariable long jobId) {
+        if (!solverManager.remove(jobId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The solver job (" + jobId + ") does not exist.");
+        }
+    }
+
+    private SolverJob findSolverJob(long jobId) {
+        return solverManager.getSolverJob(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "The solver job (" + jobId + ") does not exist."));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgument(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleRejectedExecution(RejectedExecutionException e) {
+        return e.getMessage();
+    }
+}
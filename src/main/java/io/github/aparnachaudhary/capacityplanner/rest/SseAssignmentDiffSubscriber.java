@@ -0,0 +1,29 @@
+package io.github.aparnachaudhary.capacityplanner.rest;
+
+import io.github.aparnachaudhary.capacityplanner.listener.AssignmentDiff;
+import io.github.aparnachaudhary.capacityplanner.listener.AssignmentDiffSubscriber;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Sends every {@link AssignmentDiff} as a server-sent event named {@code assignment-diff}.
+ */
+public class SseAssignmentDiffSubscriber implements AssignmentDiffSubscriber {
+
+    private final SseEmitter emitter;
+
+    public SseAssignmentDiffSubscriber(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(AssignmentDiff assignmentDiff) throws IOException {
+        emitter.send(SseEmitter.event().name("assignment-diff").data(assignmentDiff));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNodeTemplate;
+import io.github.aparnachaudhary.capacityplanner.domain.ResourceVector;
+import io.github.aparnachaudhary.capacityplanner.forecast.CandidateClusterNodeGenerator;
+import io.github.aparnachaudhary.capacityplanner.forecast.CapacityForecast;
+import io.github.aparnachaudhary.capacityplanner.forecast.CapacityForecastRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Answers "which cluster nodes to buy, at the lowest cost, for these processes": generates candidate nodes
+ * from the templates and solves that as a {@link SolverJob}, the candidates with a process on them are switched on.
+ * The job shows up with the other solver jobs, so it can be cancelled or removed like them.
+ */
+@Service
+@Slf4j
+public class CapacityForecastService {
+
+    private ClusterBalanceSolverManager solverManager;
+    private CandidateClusterNodeGenerator candidateGenerator = new CandidateClusterNodeGenerator();
+
+    public CapacityForecastService(ClusterBalanceSolverManager solverManager) {
+        this.solverManager = solverManager;
+    }
+
+    /**
+     * @param request its problem is changed: the candidates are added to its cluster nodes
+     * @return the scheduled job, never null
+     * @throws IllegalArgumentException if a reference does not exist or there are no processes or templates
+     * @throws java.util.concurrent.RejectedExecutionException if the queue is full
+     */
+    public SolverJob submit(CapacityForecastRequest request) {
+
+        ClusterBalance problem = request.getProblem();
+        List<ClusterNodeTemplate> templates = request.getClusterNodeTemplates();
+        if (problem == null || problem.getClusterProcesses() == null || templates == null || templates.isEmpty()) {
+            throw new IllegalArgumentException("A capacity forecast needs processes and cluster node templates.");
+        }
+        if (problem.getClusterNodes() == null) {
+            problem.setClusterNodes(new ArrayList<>());
+        }
+        // Deserialized references are copies, the solver needs the instances of the problem fact lists
+        problem.resolveReferences();
+        templates.forEach(template -> {
+            template.setCapacity(ResourceVector.orEmpty(template.getCapacity()));
+            template.setClusterNodeType(problem.lookUpNodeType(template.getClusterNodeType()));
+        });
+
+        List<ClusterNode> candidates = candidateGenerator.generate(problem, templates);
+        List<ClusterNode> clusterNodes = new ArrayList<>(problem.getClusterNodes());
+        clusterNodes.addAll(candidates);
+        problem.setClusterNodes(clusterNodes);
+        problem.initializeDerivedData();
+        log.info("Generated {} candidate cluster nodes from {} templates for {} processes.",
+                candidates.size(), templates.size(), problem.getClusterProcesses().size());
+        return solverManager.submit(problem);
+    }
+
+    /**
+     * @return the forecast of the current best solution, also while solving, empty if there is no such job
+     */
+    public Optional<CapacityForecast> getForecast(long jobId) {
+        return solverManager.getSolverJob(jobId)
+                .map(solverJob -> CapacityForecast.of(jobId, solverJob.getStatus(), solverJob.getBestSolution()));
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+import io.github.aparnachaudhary.capacityplanner.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saves a best solution to the database and loads the last one back, so a new run can start from the last plan
+ * instead of from scratch: the construction heuristic then only assigns new or unassigned processes.
+ * <p>
+ * Saving writes the solution back to the persisted cluster nodes and processes in one transaction,
+ * in chunks of {@code capacityplanner.import.batch-size} entities that are flushed and cleared like the CSV import:
+ * only the processes with a changed cluster node or pin are updated, nodes and processes that were added while solving
+ * are inserted, removed ones are deleted. The solution instances are never attached to the persistence context:
+ * new entities are persisted as copies, which reference the (detached) AZ, node type and node of the solution.
+ */
+@Service
+@Slf4j
+public class ClusterBalancePlanService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+    private AvailabilityZoneRepository availabilityZoneRepository;
+    private ClusterNodeTypeRepository nodeTypeRepository;
+    private ClusterNodeRepository clusterNodeRepository;
+    private ClusterProcessRepository processRepository;
+    private ClusterBalancePlanRepository planRepository;
+    private int batchSize;
+
+    public ClusterBalancePlanService(PlatformTransactionManager transactionManager,
+                                     AvailabilityZoneRepository availabilityZoneRepository,
+                                     ClusterNodeTypeRepository nodeTypeRepository,
+                                     ClusterNodeRepository clusterNodeRepository,
+                                     ClusterProcessRepository processRepository,
+                                     ClusterBalancePlanRepository planRepository,
+                                     @Value("${capacityplanner.import.batch-size:1000}") int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.availabilityZoneRepository = availabilityZoneRepository;
+        this.nodeTypeRepository = nodeTypeRepository;
+        this.clusterNodeRepository = clusterNodeRepository;
+        this.processRepository = processRepository;
+        this.planRepository = planRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param solution never changed, for example a best solution of a running solver
+     * @return the saved plan
+     */
+    public ClusterBalancePlan save(ClusterBalance solution) {
+
+        long startTimeMillis = System.currentTimeMillis();
+        ClusterBalancePlan plan = transactionTemplate.execute(status -> {
+            saveAvailabilityZonesAndNodeTypes(solution);
+            saveClusterNodes(solution.getClusterNodes());
+            saveProcesses(solution.getClusterProcesses());
+            // After the processes: none of them references a removed node any more
+            deleteRemoved(clusterNodeRepository.findAllIds(), solution.getClusterNodes(), ClusterNode::getId,
+                    clusterNodeRepository::deleteByIds);
+
+            ClusterBalancePlan newPlan = ClusterBalancePlan.builder()
+                    .savedAt(Instant.now())
+                    .score(solution.getScore() == null ? null : solution.getScore().toString())
+                    .processCount(solution.getClusterProcesses().size())
+                    .assignedProcessCount((int) solution.getClusterProcesses().stream()
+                            .filter(process -> process.getClusterNode() != null).count())
+                    .build();
+            entityManager.persist(newPlan);
+            return newPlan;
+        });
+        log.info("Saved plan ({}) with score ({}) in {} ms.", plan.getId(), plan.getScore(),
+                System.currentTimeMillis() - startTimeMillis);
+        return plan;
+    }
+
+    private void saveAvailabilityZonesAndNodeTypes(ClusterBalance solution) {
+        // Imported before solving, unless the problem was generated or submitted
+        for (AvailabilityZone availabilityZone : solution.getAvailabilityZones()) {
+            if (!availabilityZoneRepository.existsById(availabilityZone.getId())) {
+                entityManager.persist(AvailabilityZone.builder()
+                        .id(availabilityZone.getId())
+                        .name(availabilityZone.getName())
+                        .build());
+            }
+        }
+        for (ClusterNodeType nodeType : solution.getNodeTypes()) {
+            if (!nodeTypeRepository.existsById(nodeType.getId())) {
+                entityManager.persist(ClusterNodeType.builder()
+                        .id(nodeType.getId())
+                        .name(nodeType.getName())
+                        .build());
+            }
+        }
+        entityManager.flush();
+    }
+
+    private void saveClusterNodes(List<ClusterNode> clusterNodes) {
+
+        Set<Long> persistedIds = new HashSet<>(clusterNodeRepository.findAllIds());
+        int chunkSize = 0;
+        for (ClusterNode clusterNode : clusterNodes) {
+            if (persistedIds.contains(clusterNode.getId())) {
+                // A cluster node never changes while solving
+                continue;
+            }
+            entityManager.persist(ClusterNode.builder()
+                    .id(clusterNode.getId())
+                    .name(clusterNode.getName())
+                    .capacity(clusterNode.getCapacity())
+                    .cost(clusterNode.getCost())
+                    .availabilityZone(clusterNode.getAvailabilityZone())
+                    .clusterNodeType(clusterNode.getClusterNodeType())
+                    .build());
+            if (++chunkSize == batchSize) {
+                flushAndClear();
+                chunkSize = 0;
+            }
+        }
+        flushAndClear();
+    }
+
+    private void saveProcesses(List<ClusterProcess> processes) {
+
+        Set<Long> persistedIds = new HashSet<>(processRepository.findAllIds());
+        for (int from = 0; from < processes.size(); from += batchSize) {
+            List<ClusterProcess> chunk = processes.subList(from, Math.min(from + batchSize, processes.size()));
+            Map<Long, ClusterProcess> persistedProcessMap = new HashMap<>(chunk.size());
+            processRepository.findAllById(chunk.stream().map(ClusterProcess::getId).filter(persistedIds::contains).collect(Collectors.toList()))
+                    .forEach(persistedProcess -> persistedProcessMap.put(persistedProcess.getId(), persistedProcess));
+            for (ClusterProcess process : chunk) {
+                ClusterProcess persistedProcess = persistedProcessMap.get(process.getId());
+                if (persistedProcess != null) {
+                    // Dirty checking only updates the processes that got another cluster node or were (un)pinned
+                    if (!Objects.equals(getId(persistedProcess.getClusterNode()), getId(process.getClusterNode()))) {
+                        persistedProcess.setClusterNode(process.getClusterNode());
+                    }
+                    persistedProcess.setPinned(process.isPinned());
+                } else {
+                    entityManager.persist(process.toBuilder()
+                            .compatibleClusterNodes(null)
+                            .build());
+                }
+            }
+            flushAndClear();
+        }
+        deleteRemoved(persistedIds, processes, ClusterProcess::getId, processRepository::deleteByIds);
+    }
+
+    private static Long getId(ClusterNode clusterNode) {
+        return clusterNode == null ? null : clusterNode.getId();
+    }
+
+    private <T> void deleteRemoved(Collection<Long> persistedIds, List<T> solutionEntities,
+                                   Function<T, Long> idFunction, Consumer<Collection<Long>> deleteFunction) {
+        Set<Long> removedIds = new HashSet<>(persistedIds);
+        solutionEntities.forEach(entity -> removedIds.remove(idFunction.apply(entity)));
+        List<Long> removedIdList = new ArrayList<>(removedIds);
+        for (int from = 0; from < removedIdList.size(); from += batchSize) {
+            deleteFunction.accept(removedIdList.subList(from, Math.min(from + batchSize, removedIdList.size())));
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * @return the last saved plan, if any
+     */
+    public Optional<ClusterBalancePlan> findLastPlan() {
+        return planRepository.findFirstByOrderBySavedAtDescIdDesc();
+    }
+
+    /**
+     * Loads the cluster nodes and processes with the assignments of the last saved plan, as a problem to continue from.
+     *
+     * @return empty if no plan was saved yet
+     */
+    public Optional<ClusterBalance> loadLastPlan() {
+
+        long startTimeMillis = System.currentTimeMillis();
+        Optional<ClusterBalance> clusterBalance = transactionTemplate.execute(status -> findLastPlan().map(plan -> {
+            // One persistence context: every node and process references the same AZ, node type and node instances
+            Sort byId = Sort.by("id");
+            ClusterBalance lastPlan = ClusterBalance.builder()
+                    .id(0L)
+                    .availabilityZones(toList(availabilityZoneRepository.findAll(byId)))
+                    .nodeTypes(toList(nodeTypeRepository.findAll(byId)))
+                    .clusterNodes(toList(clusterNodeRepository.findAll(byId)))
+                    .clusterProcesses(toList(processRepository.findAll(byId)))
+                    .build();
+            entityManager.clear();
+            // The plan is what is running now, moving a process elsewhere is a migration
+            lastPlan.getClusterProcesses().forEach(process -> process.setOriginalClusterNode(process.getClusterNode()));
+            log.info("Loaded plan ({}) saved at {} with score ({}) in {} ms.", plan.getId(), plan.getSavedAt(), plan.getScore(),
+                    System.currentTimeMillis() - startTimeMillis);
+            return lastPlan;
+        }));
+        clusterBalance.ifPresent(ClusterBalance::initializeDerivedData);
+        return clusterBalance;
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplainer;
+import io.github.aparnachaudhary.capacityplanner.listener.AssignmentDiffPublisher;
+import io.github.aparnachaudhary.capacityplanner.metrics.SolverMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Solves any number of independent problems, for example what-if plans, as {@link SolverJob}s.
+ * At most {@code capacityplanner.solver-manager.parallel-solver-count} jobs solve at the same time,
+ * up to {@code capacityplanner.solver-manager.queue-capacity} more wait in a queue.
+ * Only the latest {@code capacityplanner.solver-manager.finished-job-capacity} finished jobs are kept,
+ * older ones are forgotten as if they were removed.
+ * Every solver is built from the shared {@link SolverFactory}, so the solver config is only parsed once.
+ */
+@Service
+@Slf4j
+public class ClusterBalanceSolverManager {
+
+    private SolverFactory<ClusterBalance> solverFactory;
+    private ThreadPoolExecutor solverExecutor;
+    private ScheduledExecutorService publisherExecutor;
+    private long publisherThrottleMillis;
+    private SolverMetrics solverMetrics;
+    private int finishedJobCapacity;
+
+    private Map<Long, SolverJob> solverJobs = new ConcurrentHashMap<>();
+    private AtomicLong nextJobId = new AtomicLong();
+
+    public ClusterBalanceSolverManager(SolverFactory<ClusterBalance> solverFactory,
+                                       @Value("${capacityplanner.solver-manager.parallel-solver-count:2}") int parallelSolverCount,
+                                       @Value("${capacityplanner.solver-manager.queue-capacity:16}") int queueCapacity,
+                                       @Value("${capacityplanner.solver-manager.finished-job-capacity:100}") int finishedJobCapacity,
+                                       ScheduledExecutorService assignmentDiffPublisherExecutor,
+                                       @Value("${capacityplanner.publisher.throttle-millis:500}") long publisherThrottleMillis,
+                                       SolverMetrics solverMetrics) {
+        this.solverFactory = solverFactory;
+        this.solverMetrics = solverMetrics;
+        this.publisherExecutor = assignmentDiffPublisherExecutor;
+        this.publisherThrottleMillis = publisherThrottleMillis;
+        this.finishedJobCapacity = finishedJobCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        solverExecutor = new ThreadPoolExecutor(parallelSolverCount, parallelSolverCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "SolverJob-" + threadCount.incrementAndGet()));
+    }
+
+    /**
+     * @param problem never null, its problem facts must be referenced by instance, see {@link ClusterBalance#resolveReferences()}
+     * @return the scheduled job, never null
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public SolverJob submit(ClusterBalance problem) {
+        Solver<ClusterBalance> solver = solverFactory.buildSolver();
+        ScoreExplainer scoreExplainer = new ScoreExplainer(solver.getScoreDirectorFactory());
+        SolverJob solverJob = new SolverJob(nextJobId.getAndIncrement(), problem, solver, scoreExplainer,
+                solverMetrics.instrument(solver, "job", scoreExplainer),
+                new AssignmentDiffPublisher(publisherExecutor, publisherThrottleMillis));
+        solverJobs.put(solverJob.getJobId(), solverJob);
+        solverJob.addFinishedConsumer(finishedJob -> evictFinishedJobs());
+        try {
+            solverJob.setFuture(solverExecutor.submit(solverJob::solve));
+        } catch (RejectedExecutionException e) {
+            solverJobs.remove(solverJob.getJobId());
+            throw new RejectedExecutionException("The queue is full: " + solverExecutor.getQueue().size()
+                    + " solver jobs are already waiting.", e);
+        }
+        log.info("Scheduled solver job ({}) for problem ({}).", solverJob.getJobId(), problem);
+        return solverJob;
+    }
+
+    public Optional<SolverJob> getSolverJob(long jobId) {
+        return Optional.ofNullable(solverJobs.get(jobId));
+    }
+
+    public Collection<SolverJob> getSolverJobs() {
+        return solverJobs.values();
+    }
+
+    /**
+     * A scheduled job never starts, a solving job terminates early; either way it keeps its best solution.
+     *
+     * @return false if there is no such job or it was already finished
+     */
+    public boolean cancel(long jobId) {
+        SolverJob solverJob = solverJobs.get(jobId);
+        if (solverJob == null || !solverJob.cancel()) {
+            return false;
+        }
+        // Frees the queue slot of a cancelled scheduled job
+        solverExecutor.purge();
+        return true;
+    }
+
+    /**
+     * Cancels the job if needed and forgets it.
+     *
+     * @return false if there is no such job
+     */
+    public boolean remove(long jobId) {
+        cancel(jobId);
+        return solverJobs.remove(jobId) != null;
+    }
+
+    /**
+     * Forgets the oldest finished jobs above the finished-job-capacity.
+     */
+    private synchronized void evictFinishedJobs() {
+        List<SolverJob> finishedJobs = solverJobs.values().stream()
+                .filter(solverJob -> solverJob.getStatus().isFinished())
+                .sorted(Comparator.comparingLong(SolverJob::getJobId))
+                .collect(Collectors.toList());
+        for (int i = 0; i < finishedJobs.size() - finishedJobCapacity; i++) {
+            solverJobs.remove(finishedJobs.get(i).getJobId());
+            log.debug("Evicted finished solver job ({}).", finishedJobs.get(i).getJobId());
+        }
+    }
+
+    @PreDestroy
+    public void terminate() {
+        solverJobs.keySet().forEach(this::cancel);
+        solverExecutor.shutdownNow();
+    }
+}
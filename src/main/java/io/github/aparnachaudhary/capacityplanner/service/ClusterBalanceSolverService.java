@@ -0,0 +1,317 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+import io.github.aparnachaudhary.capacityplanner.change.AddClusterNodeChange;
+import io.github.aparnachaudhary.capacityplanner.change.AddClusterProcessChange;
+import io.github.aparnachaudhary.capacityplanner.change.ConstraintConfigurationChange;
+import io.github.aparnachaudhary.capacityplanner.change.PinClusterProcessChange;
+import io.github.aparnachaudhary.capacityplanner.change.RemoveClusterNodeChange;
+import io.github.aparnachaudhary.capacityplanner.change.RemoveClusterProcessChange;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalanceConstraintConfiguration;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalancePlan;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplainer;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplanation;
+import io.github.aparnachaudhary.capacityplanner.listener.AssignmentDiffPublisher;
+import io.github.aparnachaudhary.capacityplanner.listener.AssignmentDiffSubscriber;
+import io.github.aparnachaudhary.capacityplanner.metrics.SolverMetrics;
+import io.github.aparnachaudhary.capacityplanner.metrics.SolverStatistics;
+import lombok.extern.slf4j.Slf4j;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.heuristic.selector.move.composite.UnionMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.ChangeMoveSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.partitionedsearch.PartitionedSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a daemon solver running on the cluster balance, so deployed and removed processes and nodes
+ * are planned in real time: every change is a {@link org.optaplanner.core.impl.solver.ProblemFactChange}
+ * and the solver continues from its current best solution instead of solving from scratch.
+ * The best solution is saved every {@code capacityplanner.plan.save-interval-millis} (if it changed) and at shutdown,
+ * see {@link ClusterBalancePlanService}.
+ */
+@Service
+@Slf4j
+public class ClusterBalanceSolverService {
+
+    private SolverFactory<ClusterBalance> solverFactory;
+    private AssignmentDiffPublisher assignmentDiffPublisher;
+    private SolverMetrics solverMetrics;
+    private ClusterBalancePlanService planService;
+    private long planSaveIntervalMillis;
+
+    private ExecutorService solverExecutor = Executors.newSingleThreadExecutor();
+    private Solver<ClusterBalance> solver;
+    private SolverStatistics statistics;
+    private ScoreExplainer scoreExplainer;
+    private AtomicReference<ClusterBalance> bestSolution = new AtomicReference<>();
+    private AtomicLong nextProcessId = new AtomicLong();
+    private AtomicLong nextClusterNodeId = new AtomicLong();
+
+    private ScheduledExecutorService planSaveExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PlanSaver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guards savedSolution and savedPlan, saves one at a time
+    private final Object planLock = new Object();
+    private ClusterBalance savedSolution;
+    private ClusterBalancePlan savedPlan;
+
+    public ClusterBalanceSolverService(SolverFactory<ClusterBalance> solverFactory,
+                                       ScheduledExecutorService assignmentDiffPublisherExecutor,
+                                       @Value("${capacityplanner.publisher.throttle-millis:500}") long publisherThrottleMillis,
+                                       SolverMetrics solverMetrics,
+                                       ClusterBalancePlanService planService,
+                                       @Value("${capacityplanner.plan.save-interval-millis:60000}") long planSaveIntervalMillis) {
+        this.solverMetrics = solverMetrics;
+        this.planService = planService;
+        this.planSaveIntervalMillis = planSaveIntervalMillis;
+        assignmentDiffPublisher = new AssignmentDiffPublisher(assignmentDiffPublisherExecutor, publisherThrottleMillis);
+        // The shared factory is also used by ClusterBalanceSolverManager, which must not run daemon solvers
+        this.solverFactory = solverFactory.cloneSolverFactory();
+        // Wait for problem fact changes instead of returning when the termination is reached
+        this.solverFactory.getSolverConfig().setDaemon(true);
+        // Every problem fact change restarts the phases, and each local search phase would then recompute
+        // the nearby distances of all processes before its first step
+        SolverConfig solverConfig = this.solverFactory.getSolverConfig();
+        solverConfig.setPhaseConfigList(withoutNearbySelection(solverConfig.getPhaseConfigList()));
+    }
+
+    /**
+     * @return copies of the phase configs that changed: a cloned solver factory still shares its move selector configs
+     */
+    private static List<PhaseConfig> withoutNearbySelection(List<PhaseConfig> phaseConfigs) {
+        return phaseConfigs == null ? null : phaseConfigs.stream()
+                .map(ClusterBalanceSolverService::withoutNearbySelection)
+                .collect(Collectors.toList());
+    }
+
+    private static PhaseConfig withoutNearbySelection(PhaseConfig phaseConfig) {
+        if (phaseConfig instanceof PartitionedSearchPhaseConfig) {
+            PartitionedSearchPhaseConfig partitionedSearchPhaseConfig = ((PartitionedSearchPhaseConfig) phaseConfig).copyConfig();
+            partitionedSearchPhaseConfig.setPhaseConfigList(withoutNearbySelection(partitionedSearchPhaseConfig.getPhaseConfigList()));
+            return partitionedSearchPhaseConfig;
+        }
+        if (phaseConfig instanceof LocalSearchPhaseConfig
+                && ((LocalSearchPhaseConfig) phaseConfig).getMoveSelectorConfig() instanceof UnionMoveSelectorConfig) {
+            LocalSearchPhaseConfig localSearchPhaseConfig = ((LocalSearchPhaseConfig) phaseConfig).copyConfig();
+            UnionMoveSelectorConfig unionMoveSelectorConfig =
+                    ((UnionMoveSelectorConfig) localSearchPhaseConfig.getMoveSelectorConfig()).copyConfig();
+            unionMoveSelectorConfig.setMoveSelectorConfigList(unionMoveSelectorConfig.getMoveSelectorConfigList().stream()
+                    .filter(moveSelectorConfig -> !(moveSelectorConfig instanceof ChangeMoveSelectorConfig)
+                            || ((ChangeMoveSelectorConfig) moveSelectorConfig).getValueSelectorConfig() == null
+                            || ((ChangeMoveSelectorConfig) moveSelectorConfig).getValueSelectorConfig().getNearbySelectionConfig() == null)
+                    .collect(Collectors.toList()));
+            localSearchPhaseConfig.setMoveSelectorConfig(unionMoveSelectorConfig);
+            return localSearchPhaseConfig;
+        }
+        return phaseConfig;
+    }
+
+    public synchronized void startSolving(ClusterBalance problem) {
+        if (solver != null) {
+            throw new IllegalStateException("The solver is already solving.");
+        }
+        nextProcessId.set(problem.getClusterProcesses().stream().mapToLong(ClusterProcess::getId).max().orElse(-1L) + 1L);
+        nextClusterNodeId.set(problem.getClusterNodes().stream().mapToLong(ClusterNode::getId).max().orElse(-1L) + 1L);
+        bestSolution.set(problem);
+
+        solver = solverFactory.buildSolver();
+        solver.addEventListener(event -> {
+            // Otherwise the best solution could lack a change that is already accepted
+            if (event.isEveryProblemFactChangeProcessed()) {
+                bestSolution.set(event.getNewBestSolution());
+            }
+        });
+        solver.addEventListener(assignmentDiffPublisher);
+        scoreExplainer = new ScoreExplainer(solver.getScoreDirectorFactory());
+        statistics = solverMetrics.instrument(solver, "realtime", scoreExplainer);
+
+        log.info("Solving Capacity Planning Problem for initSolution={}", problem);
+        solverExecutor.submit(() -> {
+            try {
+                solver.solve(problem);
+            } catch (RuntimeException e) {
+                log.error("The solver failed.", e);
+            }
+        });
+        if (planSaveIntervalMillis > 0L) {
+            planSaveExecutor.scheduleWithFixedDelay(this::savePlanQuietly,
+                    planSaveIntervalMillis, planSaveIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return null if not solving yet
+     */
+    public ClusterBalance getBestSolution() {
+        return bestSolution.get();
+    }
+
+    /**
+     * @param process its id is ignored, its AZ and node type only need an id
+     * @return the process with its new id
+     * @throws IllegalArgumentException if the AZ or node type does not exist
+     */
+    public ClusterProcess addClusterProcess(ClusterProcess process) {
+        ClusterBalance clusterBalance = getSolvingBestSolution();
+        // Fail here, not in the solver thread
+        clusterBalance.lookUpAvailabilityZone(process.getAvailabilityZone());
+        clusterBalance.lookUpNodeType(process.getClusterNodeType());
+        process.setId(nextProcessId.getAndIncrement());
+        solver.addProblemFactChange(new AddClusterProcessChange(process));
+        return process;
+    }
+
+    /**
+     * @return false if there is no such process
+     */
+    public boolean removeClusterProcess(long processId) {
+        Optional<ClusterProcess> process = getSolvingBestSolution().getClusterProcesses().stream()
+                .filter(candidate -> candidate.getId() == processId)
+                .findFirst();
+        process.ifPresent(candidate -> solver.addProblemFactChange(new RemoveClusterProcessChange(candidate)));
+        return process.isPresent();
+    }
+
+    /**
+     * @param pinned true to keep the process on its current cluster node, false to let the solver move it again
+     * @return false if there is no such process
+     */
+    public boolean pinClusterProcess(long processId, boolean pinned) {
+        Optional<ClusterProcess> process = getSolvingBestSolution().getClusterProcesses().stream()
+                .filter(candidate -> candidate.getId() == processId)
+                .findFirst();
+        process.ifPresent(candidate -> solver.addProblemFactChange(new PinClusterProcessChange(candidate, pinned)));
+        return process.isPresent();
+    }
+
+    /**
+     * @param clusterNode its id is ignored, its AZ and node type only need an id
+     * @return the cluster node with its new id
+     * @throws IllegalArgumentException if the AZ or node type does not exist
+     */
+    public ClusterNode addClusterNode(ClusterNode clusterNode) {
+        ClusterBalance clusterBalance = getSolvingBestSolution();
+        clusterBalance.lookUpAvailabilityZone(clusterNode.getAvailabilityZone());
+        clusterBalance.lookUpNodeType(clusterNode.getClusterNodeType());
+        clusterNode.setId(nextClusterNodeId.getAndIncrement());
+        solver.addProblemFactChange(new AddClusterNodeChange(clusterNode));
+        return clusterNode;
+    }
+
+    /**
+     * @return false if there is no such cluster node
+     */
+    public boolean removeClusterNode(long clusterNodeId) {
+        Optional<ClusterNode> clusterNode = getSolvingBestSolution().getClusterNodes().stream()
+                .filter(candidate -> candidate.getId() == clusterNodeId)
+                .findFirst();
+        clusterNode.ifPresent(candidate -> solver.addProblemFactChange(new RemoveClusterNodeChange(candidate)));
+        return clusterNode.isPresent();
+    }
+
+    /**
+     * @param constraintConfiguration never changed afterwards
+     * @throws IllegalArgumentException if a weight is null
+     * @throws IllegalStateException if not solving yet
+     */
+    public void updateConstraintConfiguration(ClusterBalanceConstraintConfiguration constraintConfiguration) {
+        getSolvingBestSolution();
+        // Fail here, not in the solver thread
+        constraintConfiguration.validate();
+        solver.addProblemFactChange(new ConstraintConfigurationChange(constraintConfiguration));
+    }
+
+    /**
+     * Saves the current best solution, unless it is already saved.
+     *
+     * @return the plan of the current best solution
+     * @throws IllegalStateException if not solving yet
+     */
+    public ClusterBalancePlan savePlan() {
+        ClusterBalance bestSolution = getSolvingBestSolution();
+        synchronized (planLock) {
+            if (bestSolution != savedSolution) {
+                savedPlan = planService.save(bestSolution);
+                savedSolution = bestSolution;
+            }
+            return savedPlan;
+        }
+    }
+
+    private void savePlanQuietly() {
+        try {
+            savePlan();
+        } catch (RuntimeException e) {
+            log.error("Saving the plan failed.", e);
+        }
+    }
+
+    /**
+     * @return the last saved plan, also of a previous run, if any
+     */
+    public Optional<ClusterBalancePlan> findLastPlan() {
+        return planService.findLastPlan();
+    }
+
+    /**
+     * @return the constraint matches and indictments of the current best solution, computed once per best solution
+     * @throws IllegalStateException if not solving yet
+     */
+    public ScoreExplanation explainBestScore() {
+        ClusterBalance bestSolution = getSolvingBestSolution();
+        return scoreExplainer.explain(bestSolution);
+    }
+
+    /**
+     * @return null if not solving yet
+     */
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * The subscriber first gets the complete assignment, then the changes of every (throttled) new best solution.
+     */
+    public void subscribe(AssignmentDiffSubscriber subscriber) {
+        assignmentDiffPublisher.subscribe(subscriber);
+    }
+
+    private ClusterBalance getSolvingBestSolution() {
+        ClusterBalance clusterBalance = bestSolution.get();
+        if (solver == null || clusterBalance == null) {
+            throw new IllegalStateException("The solver has not started solving yet.");
+        }
+        return clusterBalance;
+    }
+
+    @PreDestroy
+    public synchronized void terminate() {
+        planSaveExecutor.shutdownNow();
+        if (solver != null) {
+            solver.terminateEarly();
+            savePlanQuietly();
+        }
+        assignmentDiffPublisher.close();
+        solverExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplainer;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplanation;
+import io.github.aparnachaudhary.capacityplanner.listener.AssignmentDiffPublisher;
+import io.github.aparnachaudhary.capacityplanner.listener.AssignmentDiffSubscriber;
+import io.github.aparnachaudhary.capacityplanner.metrics.SolverStatistics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListenerAdapter;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+import org.optaplanner.core.impl.solver.scope.DefaultSolverScope;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * One problem submitted to {@link ClusterBalanceSolverManager}, with its own solver and its latest best solution.
+ */
+@Slf4j
+public class SolverJob {
+
+    @Getter
+    private final long jobId;
+    @Getter
+    private volatile SolverJobStatus status = SolverJobStatus.SCHEDULED;
+    @Getter
+    private volatile String errorMessage;
+    @Getter
+    private final SolverStatistics statistics;
+
+    private final ClusterBalance problem;
+    private final Solver<ClusterBalance> solver;
+    private final AtomicReference<ClusterBalance> bestSolution;
+    private final AssignmentDiffPublisher assignmentDiffPublisher;
+    private final ScoreExplainer scoreExplainer;
+    // Guarded by this, like finishedConsumersFired
+    private final Deque<Consumer<SolverJob>> finishedConsumers = new ArrayDeque<>();
+    private boolean finishedConsumersFired;
+    private Future<?> future;
+
+    SolverJob(long jobId, ClusterBalance problem, Solver<ClusterBalance> solver, ScoreExplainer scoreExplainer,
+              SolverStatistics statistics, AssignmentDiffPublisher assignmentDiffPublisher) {
+        this.jobId = jobId;
+        this.problem = problem;
+        this.solver = solver;
+        this.scoreExplainer = scoreExplainer;
+        this.statistics = statistics;
+        this.assignmentDiffPublisher = assignmentDiffPublisher;
+        bestSolution = new AtomicReference<>(problem);
+        solver.addEventListener(event -> bestSolution.set(event.getNewBestSolution()));
+        solver.addEventListener(assignmentDiffPublisher);
+        // solve() resets terminateEarly(), so a job cancelled just before it started solving is terminated again
+        ((DefaultSolver<ClusterBalance>) solver).addPhaseLifecycleListener(new PhaseLifecycleListenerAdapter<ClusterBalance>() {
+            @Override
+            public void solvingStarted(DefaultSolverScope<ClusterBalance> solverScope) {
+                if (status == SolverJobStatus.CANCELLED) {
+                    solver.terminateEarly();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the problem as long as no better solution is found, never null
+     */
+    @JsonIgnore
+    public ClusterBalance getBestSolution() {
+        return bestSolution.get();
+    }
+
+    /**
+     * @return the constraint matches and indictments of the current best solution, computed once per best solution
+     */
+    public ScoreExplanation explainBestScore() {
+        return scoreExplainer.explain(bestSolution.get());
+    }
+
+    public HardMediumSoftLongScore getScore() {
+        return bestSolution.get().getScore();
+    }
+
+    /**
+     * The subscriber is closed when the job is finished.
+     */
+    public void subscribe(AssignmentDiffSubscriber subscriber) {
+        assignmentDiffPublisher.subscribe(subscriber);
+    }
+
+    /**
+     * Called once the job is finished, after the consumers added before it,
+     * immediately if the job is finished and all those were called already.
+     */
+    public void addFinishedConsumer(Consumer<SolverJob> finishedConsumer) {
+        synchronized (this) {
+            if (!finishedConsumersFired) {
+                finishedConsumers.addLast(finishedConsumer);
+                return;
+            }
+        }
+        finishedConsumer.accept(this);
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    void solve() {
+        synchronized (this) {
+            if (status != SolverJobStatus.SCHEDULED) {
+                return;
+            }
+            status = SolverJobStatus.SOLVING;
+        }
+        Error error = null;
+        try {
+            bestSolution.set(solver.solve(problem));
+            synchronized (this) {
+                if (status == SolverJobStatus.SOLVING) {
+                    status = SolverJobStatus.SOLVED;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // An Error too, such as an OutOfMemoryError, otherwise the job would stay SOLVING forever
+            log.error("The solver job ({}) failed.", jobId, e);
+            errorMessage = e.getMessage();
+            status = SolverJobStatus.FAILED;
+            if (e instanceof Error) {
+                error = (Error) e;
+            }
+        }
+        fireFinished();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * @return false if the job was already finished
+     */
+    boolean cancel() {
+        synchronized (this) {
+            if (status.isFinished()) {
+                return false;
+            }
+            boolean scheduled = status == SolverJobStatus.SCHEDULED;
+            status = SolverJobStatus.CANCELLED;
+            if (!scheduled) {
+                // The solver thread fires the finished event when solve() returns
+                solver.terminateEarly();
+                return true;
+            }
+        }
+        future.cancel(false);
+        fireFinished();
+        return true;
+    }
+
+    private void fireFinished() {
+        assignmentDiffPublisher.close();
+        // One at a time, a consumer added meanwhile is called after the others
+        while (true) {
+            Consumer<SolverJob> consumer;
+            synchronized (this) {
+                consumer = finishedConsumers.pollFirst();
+                if (consumer == null) {
+                    finishedConsumersFired = true;
+                    return;
+                }
+            }
+            consumer.accept(this);
+        }
+    }
+}
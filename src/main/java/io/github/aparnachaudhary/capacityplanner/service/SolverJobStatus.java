@@ -0,0 +1,23 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+public enum SolverJobStatus {
+
+    /**
+     * Waiting in the queue for a free solver thread.
+     */
+    SCHEDULED,
+    SOLVING,
+    /**
+     * Reached the termination of the solver config.
+     */
+    SOLVED,
+    /**
+     * Cancelled while scheduled or terminated early while solving, the best solution so far is kept.
+     */
+    CANCELLED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == SOLVED || this == CANCELLED || this == FAILED;
+    }
+}
@@ -1,14 +1,28 @@
 package io.github.aparnachaudhary.capacityplanner.solver;
 
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalanceConstraintConfiguration;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
 import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
-import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import io.github.aparnachaudhary.capacityplanner.domain.ResourceCapacity;
+import io.github.aparnachaudhary.capacityplanner.domain.ResourceVector;
 import org.optaplanner.core.api.score.stream.Constraint;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
 import org.optaplanner.core.api.score.stream.ConstraintProvider;
+import org.optaplanner.core.api.score.stream.uni.UniConstraintCollector;
 
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.github.aparnachaudhary.capacityplanner.domain.ClusterBalanceConstraintConfiguration.*;
 import static org.optaplanner.core.api.score.stream.ConstraintCollectors.count;
-import static org.optaplanner.core.api.score.stream.ConstraintCollectors.sum;
 
+/**
+ * Constraint streams version of {@link CloudCapacityScoreCalculator}, with the same rules,
+ * weighted by the {@link ClusterBalanceConstraintConfiguration}.
+ * Requires {@link io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance#initializeResourceCapacity()}
+ * to have been called on the problem for the AZ and node-type capacity rules.
+ */
 public class CloudBalancingConstraintProvider implements ConstraintProvider {
 
     // WARNING: The ConstraintStreams/ConstraintProvider API is TECH PREVIEW.
@@ -18,10 +32,15 @@ public class CloudBalancingConstraintProvider implements ConstraintProvider {
     @Override
     public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
         return new Constraint[]{
-                requiredCpuPowerTotal(constraintFactory),
-                requiredMemoryTotal(constraintFactory),
-                requiredDiskUsageTotal(constraintFactory),
-                computerCost(constraintFactory)
+                capacity(constraintFactory),
+                azCapacity(constraintFactory),
+                nodeTypeCapacity(constraintFactory),
+                wrongNodeType(constraintFactory),
+                wrongAZ(constraintFactory),
+                maximumMigrations(constraintFactory),
+                notAssigned(constraintFactory),
+                clusterNodeCost(constraintFactory),
+                processMigration(constraintFactory)
         };
     }
 
@@ -29,31 +48,71 @@ public class CloudBalancingConstraintProvider implements ConstraintProvider {
     // Hard constraints
     // ************************************************************************
 
-    private Constraint requiredCpuPowerTotal(ConstraintFactory constraintFactory) {
+    private Constraint capacity(ConstraintFactory constraintFactory) {
+        return constraintFactory.from(ClusterProcess.class)
+                .filter(CloudBalancingConstraintProvider::isOnMatchingClusterNode)
+                .groupBy(ClusterProcess::getClusterNode, sumUsage())
+                .filter((clusterNode, usage) -> overCapacity(usage, clusterNode.getCapacity()) > 0L)
+                .penalizeConfigurableLong(CLUSTER_NODE_CAPACITY,
+                        (clusterNode, usage) -> overCapacity(usage, clusterNode.getCapacity()));
+    }
+
+    private Constraint azCapacity(ConstraintFactory constraintFactory) {
+        return groupCapacity(constraintFactory, AVAILABILITY_ZONE_CAPACITY, process -> process.getClusterNode().getAvailabilityZone(),
+                ResourceCapacity::getAvailabilityZone);
+    }
+
+    private Constraint nodeTypeCapacity(ConstraintFactory constraintFactory) {
+        return groupCapacity(constraintFactory, NODE_TYPE_CAPACITY, process -> process.getClusterNode().getClusterNodeType(),
+                ResourceCapacity::getClusterNodeType);
+    }
+
+    /**
+     * Sums the usage of every resource per AZ or node type and penalizes the usage above the {@link ResourceCapacity}
+     * of that AZ or node type, summed over all resources.
+     * Only processes placed on a node of their own AZ and node type use its resources,
+     * the others are penalized by {@link #wrongNodeType(ConstraintFactory)} and {@link #wrongAZ(ConstraintFactory)}.
+     */
+    private <Key_> Constraint groupCapacity(ConstraintFactory constraintFactory, String constraintName,
+                                            Function<ClusterProcess, Key_> groupKeyMapping,
+                                            Function<ResourceCapacity, Key_> capacityKeyMapping) {
+        return constraintFactory.from(ClusterProcess.class)
+                .filter(CloudBalancingConstraintProvider::isOnMatchingClusterNode)
+                .groupBy(groupKeyMapping, sumUsage())
+                // Few AZs and node types, so a filter instead of a joiner
+                .join(ResourceCapacity.class)
+                .filter((key, usage, resourceCapacity) -> key.equals(capacityKeyMapping.apply(resourceCapacity))
+                        && overCapacity(usage, resourceCapacity.getCapacity()) > 0L)
+                .penalizeConfigurableLong(constraintName,
+                        (key, usage, resourceCapacity) -> overCapacity(usage, resourceCapacity.getCapacity()));
+    }
+
+    private Constraint wrongNodeType(ConstraintFactory constraintFactory) {
         return constraintFactory.from(ClusterProcess.class)
-                .groupBy(ClusterProcess::getClusterNode, sum(ClusterProcess::getCpu))
-                .filter((cloudComputer, cpuRequired) -> cpuRequired > cloudComputer.getCpu())
-                .penalize("requiredCpuPowerTotal",
-                        HardMediumSoftScore.ONE_HARD,
-                        (cloudComputer, cpuRequired) -> cpuRequired - cloudComputer.getCpu());
+                .filter(process -> process.getClusterNode() != null
+                        && !process.getClusterNodeType().equals(process.getClusterNode().getClusterNodeType()))
+                .penalizeConfigurableLong(WRONG_NODE_TYPE,
+                        ClusterProcess::getDifficultyIndex);
     }
 
-    private Constraint requiredMemoryTotal(ConstraintFactory constraintFactory) {
+    private Constraint wrongAZ(ConstraintFactory constraintFactory) {
         return constraintFactory.from(ClusterProcess.class)
-                .groupBy(ClusterProcess::getClusterNode, sum(ClusterProcess::getMemory))
-                .filter((cloudComputer, memoryRequired) -> memoryRequired > cloudComputer.getMemory())
-                .penalize("requiredMemoryTotal",
-                        HardMediumSoftScore.ONE_HARD,
-                        (cloudComputer, memoryRequired) -> memoryRequired - cloudComputer.getMemory());
+                .filter(process -> process.getClusterNode() != null
+                        && !process.getAvailabilityZone().equals(process.getClusterNode().getAvailabilityZone()))
+                .penalizeConfigurableLong(WRONG_AVAILABILITY_ZONE,
+                        ClusterProcess::getDifficultyIndex);
     }
 
-    private Constraint requiredDiskUsageTotal(ConstraintFactory constraintFactory) {
+    private Constraint maximumMigrations(ConstraintFactory constraintFactory) {
         return constraintFactory.from(ClusterProcess.class)
-                .groupBy(ClusterProcess::getClusterNode, sum(ClusterProcess::getDisk))
-                .filter((cloudComputer, diskRequired) -> diskRequired > cloudComputer.getDisk())
-                .penalize("requiredDiskUsageTotal",
-                        HardMediumSoftScore.ONE_MEDIUM,
-                        (cloudComputer, diskRequired) -> diskRequired - cloudComputer.getDisk());
+                .filter(ClusterProcess::isMigrated)
+                // A single group (Bavet can group a uni stream only) joined with the maximum
+                .groupBy(ClusterProcess::isMigrated, count())
+                .join(constraintFactory.from(ClusterBalanceConstraintConfiguration.class)
+                        .filter(constraintConfiguration -> constraintConfiguration.getMaximumMigrationCount() != null))
+                .filter((migrated, migrationCount, constraintConfiguration) -> constraintConfiguration.getExcessMigrationCount(migrationCount) > 0L)
+                .penalizeConfigurableLong(MAXIMUM_MIGRATIONS,
+                        (migrated, migrationCount, constraintConfiguration) -> constraintConfiguration.getExcessMigrationCount(migrationCount));
     }
 
     // ************************************************************************
@@ -62,25 +121,81 @@ public class CloudBalancingConstraintProvider implements ConstraintProvider {
 
     private Constraint notAssigned(ConstraintFactory constraintFactory) {
         return constraintFactory.from(ClusterProcess.class)
-                .groupBy(ClusterProcess::getClusterNode, sum(ClusterProcess::getDisk))
-                .filter((cloudComputer, diskRequired) -> diskRequired > cloudComputer.getDisk())
-                .penalize("notAssigned",
-                        HardMediumSoftScore.ONE_MEDIUM,
-                        (cloudComputer, diskRequired) -> diskRequired - cloudComputer.getDisk());
+                .filter(process -> process.getClusterNode() == null)
+                .penalizeConfigurableLong(NOT_ASSIGNED,
+                        ClusterProcess::getDifficultyIndex);
     }
 
     // ************************************************************************
     // Soft constraints
     // ************************************************************************
 
-    private Constraint computerCost(ConstraintFactory constraintFactory) {
+    private Constraint clusterNodeCost(ConstraintFactory constraintFactory) {
         return constraintFactory.from(ClusterProcess.class)
-                // TODO Simplify by using:
-                // .groupBy(ClusterProcess::getComputer)
+                .filter(CloudBalancingConstraintProvider::isOnMatchingClusterNode)
+                // TODO Simplify by using (not supported by Bavet yet):
+                // .groupBy(ClusterProcess::getClusterNode)
                 // .penalize(ClusterNode::getCost);
                 .groupBy(ClusterProcess::getClusterNode, count())
-                .penalize("computerCost",
-                        HardMediumSoftScore.ONE_SOFT,
-                        (cloudComputer, count) -> cloudComputer.getCost());
+                .penalizeConfigurableLong(CLUSTER_NODE_COST,
+                        (clusterNode, count) -> clusterNode.getCost());
+    }
+
+    private Constraint processMigration(ConstraintFactory constraintFactory) {
+        return constraintFactory.from(ClusterProcess.class)
+                .filter(ClusterProcess::isMigrated)
+                .penalizeConfigurableLong(PROCESS_MIGRATION,
+                        process -> 1L);
+    }
+
+    private static boolean isOnMatchingClusterNode(ClusterProcess process) {
+        ClusterNode clusterNode = process.getClusterNode();
+        return clusterNode != null
+                && process.getClusterNodeType().equals(clusterNode.getClusterNodeType())
+                && process.getAvailabilityZone().equals(clusterNode.getAvailabilityZone());
+    }
+
+    /**
+     * Sums the {@link ClusterProcess#getUsage()} vectors.
+     */
+    private static UniConstraintCollector<ClusterProcess, long[], long[]> sumUsage() {
+        return new UniConstraintCollector<ClusterProcess, long[], long[]>() {
+
+            @Override
+            public Supplier<long[]> supplier() {
+                return ResourceVector::empty;
+            }
+
+            @Override
+            public BiFunction<long[], ClusterProcess, Runnable> accumulator() {
+                return (totalUsage, process) -> {
+                    long[] usage = process.getUsage();
+                    for (int i = 0; i < usage.length; i++) {
+                        totalUsage[i] += usage[i];
+                    }
+                    return () -> {
+                        for (int i = 0; i < usage.length; i++) {
+                            totalUsage[i] -= usage[i];
+                        }
+                    };
+                };
+            }
+
+            @Override
+            public Function<long[], long[]> finisher() {
+                // A copy: the total keeps changing
+                return long[]::clone;
+            }
+        };
+    }
+
+    private static long overCapacity(long[] usage, long[] capacity) {
+        long overCapacity = 0L;
+        for (int i = 0; i < usage.length; i++) {
+            if (usage[i] > capacity[i]) {
+                overCapacity += usage[i] - capacity[i];
+            }
+        }
+        return overCapacity;
     }
 }
@@ -3,7 +3,8 @@ package io.github.aparnachaudhary.capacityplanner.solver;
 import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
 import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
 import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
-import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import io.github.aparnachaudhary.capacityplanner.domain.Resource;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import org.optaplanner.core.impl.score.director.easy.EasyScoreCalculator;
 
 public class CloudBalancingEasyScoreCalculator implements EasyScoreCalculator<ClusterBalance> {
@@ -13,39 +14,33 @@ public class CloudBalancingEasyScoreCalculator implements EasyScoreCalculator<Cl
      * {@link CloudBalancingMapBasedEasyScoreCalculator#calculateScore(ClusterBalance)}.
      */
     @Override
-    public HardSoftScore calculateScore(ClusterBalance clusterBalance) {
+    public HardSoftLongScore calculateScore(ClusterBalance clusterBalance) {
 
-        int hardScore = 0;
-        int softScore = 0;
+        long hardScore = 0L;
+        long softScore = 0L;
 
         for (ClusterNode clusterNode : clusterBalance.getClusterNodes()) {
-            int cpuCapacityUsage = 0;
-            int memoryUsage = 0;
-            int diskUsage = 0;
+            long[] usage = new long[Resource.COUNT];
             boolean used = false;
 
             // Calculate usage
             for (ClusterProcess process : clusterBalance.getClusterProcesses()) {
                 if (clusterNode.equals(process.getClusterNode())) {
-                    cpuCapacityUsage += process.getCpu();
-                    memoryUsage += process.getMemory();
-                    diskUsage += process.getDisk();
+                    long[] processUsage = process.getUsage();
+                    for (int i = 0; i < usage.length; i++) {
+                        usage[i] += processUsage[i];
+                    }
                     used = true;
                 }
             }
 
             // Hard constraints
-            int cpuPowerAvailable = clusterNode.getCpu() - cpuCapacityUsage;
-            if (cpuPowerAvailable < 0) {
-                hardScore += cpuPowerAvailable;
-            }
-            int memoryAvailable = clusterNode.getMemory() - memoryUsage;
-            if (memoryAvailable < 0) {
-                hardScore += memoryAvailable;
-            }
-            int diskAvailable = clusterNode.getDisk() - diskUsage;
-            if (diskAvailable < 0) {
-                hardScore += diskAvailable;
+            long[] capacity = clusterNode.getCapacity();
+            for (int i = 0; i < usage.length; i++) {
+                long available = capacity[i] - usage[i];
+                if (available < 0L) {
+                    hardScore += available;
+                }
             }
 
             // Soft constraints
@@ -53,6 +48,6 @@ public class CloudBalancingEasyScoreCalculator implements EasyScoreCalculator<Cl
                 softScore -= clusterNode.getCost();
             }
         }
-        return HardSoftScore.of(hardScore, softScore);
+        return HardSoftLongScore.of(hardScore, softScore);
     }
 }
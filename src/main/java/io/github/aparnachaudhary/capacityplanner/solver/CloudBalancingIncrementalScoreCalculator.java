@@ -0,0 +1,304 @@
+package io.github.aparnachaudhary.capacityplanner.solver;
+
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.score.constraint.ConstraintMatch;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.score.constraint.Indictment;
+import org.optaplanner.core.impl.score.director.incremental.AbstractIncrementalScoreCalculator;
+import org.optaplanner.core.impl.score.director.incremental.ConstraintMatchAwareIncrementalScoreCalculator;
+
+import java.util.*;
+
+/**
+ * Incremental counterpart of {@link CloudCapacityScoreCalculator}: same hard/medium/soft semantics, but the
+ * per-node, per-AZ and per-node-type usage totals are kept between moves in a {@link ClusterUtilization},
+ * so a variable change only costs O(1) instead of a walk over all processes and nodes.
+ * <p>
+ * The match weight of every constraint is summed apart and only multiplied by its constraint weight in {@link #calculateScore()},
+ * the weights are read from the {@link ClusterBalanceConstraintConfiguration} when the working solution is reset.
+ * The over capacity of a level (node, AZ or node type) with weight zero is not calculated at all,
+ * nor is the usage of an AZ or node type level.
+ * The migrated processes are counted as they move, the excess over the maximum migration count follows from that count.
+ * <p>
+ * The constraint matches, named like those of {@link CloudBalancingConstraintProvider}, are not tracked incrementally:
+ * they are built from the current usage totals each time they are requested, for example to explain a best solution.
+ */
+public class CloudBalancingIncrementalScoreCalculator extends AbstractIncrementalScoreCalculator<ClusterBalance>
+        implements ConstraintMatchAwareIncrementalScoreCalculator<ClusterBalance> {
+
+    private static final String CONSTRAINT_PACKAGE = ClusterBalance.class.getPackage().getName();
+    private static final Resource[] RESOURCES = Resource.values();
+
+    // Indices in the arrays below
+    private static final int NOT_ASSIGNED = 0;
+    private static final int WRONG_NODE_TYPE = 1;
+    private static final int WRONG_AVAILABILITY_ZONE = 2;
+    private static final int CLUSTER_NODE_CAPACITY = 3;
+    private static final int AVAILABILITY_ZONE_CAPACITY = 4;
+    private static final int NODE_TYPE_CAPACITY = 5;
+    private static final int CLUSTER_NODE_COST = 6;
+    private static final int PROCESS_MIGRATION = 7;
+    private static final int MAXIMUM_MIGRATIONS = 8;
+    private static final int CONSTRAINT_COUNT = 9;
+
+    private ClusterBalance clusterBalance;
+    private ClusterUtilization clusterUtilization;
+
+    private final long[] hardWeights = new long[CONSTRAINT_COUNT];
+    private final long[] mediumWeights = new long[CONSTRAINT_COUNT];
+    private final long[] softWeights = new long[CONSTRAINT_COUNT];
+    private boolean clusterNodeCapacityEnabled;
+    private boolean availabilityZoneCapacityEnabled;
+    private boolean nodeTypeCapacityEnabled;
+
+    // The sum of the match weights per constraint, except MAXIMUM_MIGRATIONS, which follows from PROCESS_MIGRATION
+    private final long[] matchWeightTotals = new long[CONSTRAINT_COUNT];
+
+    @Override
+    public void resetWorkingSolution(ClusterBalance clusterBalance, boolean constraintMatchEnabled) {
+        resetWorkingSolution(clusterBalance);
+    }
+
+    @Override
+    public void resetWorkingSolution(ClusterBalance clusterBalance) {
+
+        this.clusterBalance = clusterBalance;
+        clusterUtilization = ClusterUtilization.reuseOrCreate(clusterUtilization, clusterBalance);
+
+        ClusterBalanceConstraintConfiguration constraintConfiguration = clusterBalance.getConstraintConfiguration();
+        setWeight(NOT_ASSIGNED, constraintConfiguration.getNotAssigned());
+        setWeight(WRONG_NODE_TYPE, constraintConfiguration.getWrongNodeType());
+        setWeight(WRONG_AVAILABILITY_ZONE, constraintConfiguration.getWrongAvailabilityZone());
+        clusterNodeCapacityEnabled = setWeight(CLUSTER_NODE_CAPACITY, constraintConfiguration.getClusterNodeCapacity());
+        availabilityZoneCapacityEnabled = setWeight(AVAILABILITY_ZONE_CAPACITY, constraintConfiguration.getAvailabilityZoneCapacity());
+        nodeTypeCapacityEnabled = setWeight(NODE_TYPE_CAPACITY, constraintConfiguration.getNodeTypeCapacity());
+        setWeight(CLUSTER_NODE_COST, constraintConfiguration.getClusterNodeCost());
+        setWeight(PROCESS_MIGRATION, constraintConfiguration.getProcessMigration());
+        setWeight(MAXIMUM_MIGRATIONS, constraintConfiguration.getMaximumMigrations());
+
+        Arrays.fill(matchWeightTotals, 0L);
+        for (ClusterProcess process : clusterBalance.getClusterProcesses()) {
+            insert(process);
+        }
+    }
+
+    /**
+     * @return false if the weight is zero
+     */
+    private boolean setWeight(int constraint, HardMediumSoftLongScore weight) {
+        hardWeights[constraint] = weight.getHardScore();
+        mediumWeights[constraint] = weight.getMediumScore();
+        softWeights[constraint] = weight.getSoftScore();
+        return !weight.equals(HardMediumSoftLongScore.ZERO);
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity) {
+        // Do nothing
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        insert((ClusterProcess) entity);
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        retract((ClusterProcess) entity);
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        insert((ClusterProcess) entity);
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+        retract((ClusterProcess) entity);
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        // Do nothing
+    }
+
+    private void insert(ClusterProcess process) {
+        // Moved off its original Cluster Node
+        if (process.isMigrated()) {
+            matchWeightTotals[PROCESS_MIGRATION]++;
+        }
+        ClusterNode clusterNode = process.getClusterNode();
+        if (clusterNode == null) {
+            // Not Assigned to Any Cluster Node
+            matchWeightTotals[NOT_ASSIGNED] += process.getDifficultyIndex();
+            return;
+        }
+        boolean nodeTypeConstraintMatched = clusterNode.getClusterNodeType().equals(process.getClusterNodeType());
+        boolean azConstraintMatched = clusterNode.getAvailabilityZone().equals(process.getAvailabilityZone());
+        // Assigned to Wrong ClusterNodeType
+        if (!nodeTypeConstraintMatched) {
+            matchWeightTotals[WRONG_NODE_TYPE] += process.getDifficultyIndex();
+        }
+        // Assigned to Wrong AZ
+        if (!azConstraintMatched) {
+            matchWeightTotals[WRONG_AVAILABILITY_ZONE] += process.getDifficultyIndex();
+        }
+        if (nodeTypeConstraintMatched && azConstraintMatched) {
+            int processCount = updateResourceUsage(clusterNode, process, 1);
+            // Cost incurred based on Cluster Nodes Used
+            if (processCount == 1) {
+                matchWeightTotals[CLUSTER_NODE_COST] += clusterNode.getCost();
+            }
+        }
+    }
+
+    private void retract(ClusterProcess process) {
+        if (process.isMigrated()) {
+            matchWeightTotals[PROCESS_MIGRATION]--;
+        }
+        ClusterNode clusterNode = process.getClusterNode();
+        if (clusterNode == null) {
+            matchWeightTotals[NOT_ASSIGNED] -= process.getDifficultyIndex();
+            return;
+        }
+        boolean nodeTypeConstraintMatched = clusterNode.getClusterNodeType().equals(process.getClusterNodeType());
+        boolean azConstraintMatched = clusterNode.getAvailabilityZone().equals(process.getAvailabilityZone());
+        if (!nodeTypeConstraintMatched) {
+            matchWeightTotals[WRONG_NODE_TYPE] -= process.getDifficultyIndex();
+        }
+        if (!azConstraintMatched) {
+            matchWeightTotals[WRONG_AVAILABILITY_ZONE] -= process.getDifficultyIndex();
+        }
+        if (nodeTypeConstraintMatched && azConstraintMatched) {
+            int processCount = updateResourceUsage(clusterNode, process, -1);
+            if (processCount == 0) {
+                matchWeightTotals[CLUSTER_NODE_COST] -= clusterNode.getCost();
+            }
+        }
+    }
+
+    private int updateResourceUsage(ClusterNode clusterNode, ClusterProcess process, int sign) {
+        // Per AZ/NodeType/Node Resource Capacity And Usage
+        addOverCapacity(clusterNode, -1);
+        int processCount = clusterUtilization.addProcess(clusterNode, process, sign,
+                availabilityZoneCapacityEnabled, nodeTypeCapacityEnabled);
+        addOverCapacity(clusterNode, 1);
+        return processCount;
+    }
+
+    private void addOverCapacity(ClusterNode clusterNode, int sign) {
+        if (clusterNodeCapacityEnabled) {
+            matchWeightTotals[CLUSTER_NODE_CAPACITY] += sign * clusterUtilization.getNodeOverCapacity(clusterNode);
+        }
+        if (availabilityZoneCapacityEnabled) {
+            matchWeightTotals[AVAILABILITY_ZONE_CAPACITY] += sign * clusterUtilization.getAvailabilityZoneOverCapacity(clusterNode.getAvailabilityZone());
+        }
+        if (nodeTypeCapacityEnabled) {
+            matchWeightTotals[NODE_TYPE_CAPACITY] += sign * clusterUtilization.getNodeTypeOverCapacity(clusterNode.getClusterNodeType());
+        }
+    }
+
+    @Override
+    public HardMediumSoftLongScore calculateScore() {
+        matchWeightTotals[MAXIMUM_MIGRATIONS] = clusterBalance.getConstraintConfiguration()
+                .getExcessMigrationCount(matchWeightTotals[PROCESS_MIGRATION]);
+        long hardScore = 0L;
+        long mediumScore = 0L;
+        long softScore = 0L;
+        for (int i = 0; i < CONSTRAINT_COUNT; i++) {
+            hardScore -= hardWeights[i] * matchWeightTotals[i];
+            mediumScore -= mediumWeights[i] * matchWeightTotals[i];
+            softScore -= softWeights[i] * matchWeightTotals[i];
+        }
+        return HardMediumSoftLongScore.of(hardScore, mediumScore, softScore);
+    }
+
+    @Override
+    public Collection<ConstraintMatchTotal> getConstraintMatchTotals() {
+
+        ClusterBalanceConstraintConfiguration constraintConfiguration = clusterBalance.getConstraintConfiguration();
+        Map<String, ConstraintMatchTotal> constraintMatchTotalMap = new LinkedHashMap<>();
+        long migrationCount = 0L;
+        for (ClusterProcess process : clusterBalance.getClusterProcesses()) {
+            if (process.isMigrated()) {
+                migrationCount++;
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.PROCESS_MIGRATION,
+                        constraintConfiguration.getProcessMigration(), 1L, process, process.getOriginalClusterNode());
+            }
+            ClusterNode clusterNode = process.getClusterNode();
+            if (clusterNode == null) {
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.NOT_ASSIGNED,
+                        constraintConfiguration.getNotAssigned(), process.getDifficultyIndex(), process);
+                continue;
+            }
+            if (!clusterNode.getClusterNodeType().equals(process.getClusterNodeType())) {
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.WRONG_NODE_TYPE,
+                        constraintConfiguration.getWrongNodeType(), process.getDifficultyIndex(), process);
+            }
+            if (!clusterNode.getAvailabilityZone().equals(process.getAvailabilityZone())) {
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.WRONG_AVAILABILITY_ZONE,
+                        constraintConfiguration.getWrongAvailabilityZone(), process.getDifficultyIndex(), process);
+            }
+        }
+        // One match per resource, so the explanation shows which resource is short
+        for (Resource resource : RESOURCES) {
+            for (ClusterNode clusterNode : clusterBalance.getClusterNodes()) {
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.CLUSTER_NODE_CAPACITY,
+                        constraintConfiguration.getClusterNodeCapacity(),
+                        clusterUtilization.getNodeOverCapacity(clusterNode, resource), clusterNode, resource);
+            }
+            for (AvailabilityZone availabilityZone : clusterBalance.getAvailabilityZones()) {
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.AVAILABILITY_ZONE_CAPACITY,
+                        constraintConfiguration.getAvailabilityZoneCapacity(),
+                        clusterUtilization.getAvailabilityZoneOverCapacity(availabilityZone, resource), availabilityZone, resource);
+            }
+            for (ClusterNodeType nodeType : clusterBalance.getNodeTypes()) {
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.NODE_TYPE_CAPACITY,
+                        constraintConfiguration.getNodeTypeCapacity(),
+                        clusterUtilization.getNodeTypeOverCapacity(nodeType, resource), nodeType, resource);
+            }
+        }
+        for (ClusterNode clusterNode : clusterBalance.getClusterNodes()) {
+            if (clusterUtilization.getProcessCount(clusterNode) > 0) {
+                addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.CLUSTER_NODE_COST,
+                        constraintConfiguration.getClusterNodeCost(), clusterNode.getCost(), clusterNode);
+            }
+        }
+        // Justified by the configuration: no single migration is to blame
+        addConstraintMatch(constraintMatchTotalMap, ClusterBalanceConstraintConfiguration.MAXIMUM_MIGRATIONS,
+                constraintConfiguration.getMaximumMigrations(), constraintConfiguration.getExcessMigrationCount(migrationCount),
+                constraintConfiguration);
+        return constraintMatchTotalMap.values();
+    }
+
+    /**
+     * Does nothing if the match weight or the constraint weight is zero.
+     */
+    private static void addConstraintMatch(Map<String, ConstraintMatchTotal> constraintMatchTotalMap, String constraintName,
+                                           HardMediumSoftLongScore constraintWeight, long matchWeight, Object... justifications) {
+        if (matchWeight == 0L || constraintWeight.equals(HardMediumSoftLongScore.ZERO)) {
+            return;
+        }
+        HardMediumSoftLongScore score = HardMediumSoftLongScore.of(-constraintWeight.getHardScore() * matchWeight,
+                -constraintWeight.getMediumScore() * matchWeight, -constraintWeight.getSoftScore() * matchWeight);
+        constraintMatchTotalMap.computeIfAbsent(constraintName,
+                key -> new ConstraintMatchTotal(CONSTRAINT_PACKAGE, constraintName, constraintWeight, HardMediumSoftLongScore.ZERO))
+                .addConstraintMatch(Arrays.asList(justifications), score);
+    }
+
+    @Override
+    public Map<Object, Indictment> getIndictmentMap() {
+
+        Map<Object, Indictment> indictmentMap = new LinkedHashMap<>();
+        for (ConstraintMatchTotal constraintMatchTotal : getConstraintMatchTotals()) {
+            for (ConstraintMatch constraintMatch : constraintMatchTotal.getConstraintMatchSet()) {
+                for (Object justification : constraintMatch.getJustificationList()) {
+                    indictmentMap.computeIfAbsent(justification, key -> new Indictment(justification, HardMediumSoftLongScore.ZERO))
+                            .addConstraintMatch(constraintMatch);
+                }
+            }
+        }
+        return indictmentMap;
+    }
+}
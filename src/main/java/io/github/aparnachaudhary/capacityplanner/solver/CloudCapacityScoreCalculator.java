@@ -1,185 +1,99 @@
 package io.github.aparnachaudhary.capacityplanner.solver;
 
 import io.github.aparnachaudhary.capacityplanner.domain.*;
-import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
 import org.optaplanner.core.impl.score.director.easy.EasyScoreCalculator;
 
-import java.util.*;
+import java.util.List;
 
+/**
+ * Reference score calculation, with the constraint weights of {@link ClusterBalance#getConstraintConfiguration()}.
+ */
 public class CloudCapacityScoreCalculator implements EasyScoreCalculator<ClusterBalance> {
 
-    @Override
-    public HardMediumSoftScore calculateScore(ClusterBalance clusterBalance) {
-
-        int clusterNodeSize = clusterBalance.getClusterNodes().size();
-        Set<ClusterNode> usedClusterNodes = new HashSet<>(clusterNodeSize);
-
-
-        ClusterUtilization resourceCapacity = clusterBalance.getResourceCapacity();
-
-        visitProcessList(resourceCapacity, usedClusterNodes, clusterBalance.getClusterProcesses());
-
-
-        int hardScore = 0;
-        int mediumScore = 0;
-        int softScore = 0;
+    // Reused by every calculateScore call of a thread, so scoring allocates nothing but the score.
+    // Per thread: OptaPlanner shares the calculator instance between the score directors of the move threads
+    // and the assertion score director
+    private final ThreadLocal<ClusterUtilization> clusterUtilizationHolder = new ThreadLocal<>();
 
-        // Per AZ/NodeType/Node Resource Capacity And Usage
-        hardScore += resourceAllocationScore(resourceCapacity);
-        // Assigned to Wrong ClusterNodeType
-        hardScore += wrongNodeTypeAssignment(clusterBalance.getClusterProcesses());
-        // Assigned to Wrong AZ
-        hardScore += wrongAZAssignment(clusterBalance.getClusterProcesses());
-        // Not Assigned to Any Cluster Node
-        mediumScore += notAssignedToClusterNode(clusterBalance.getClusterProcesses());
-        // Cost incurred based on Cluster Nodes Used
-        softScore += usedClusterNodesCostScore(usedClusterNodes);
+    @Override
+    public HardMediumSoftLongScore calculateScore(ClusterBalance clusterBalance) {
 
-        return HardMediumSoftScore.of(hardScore, mediumScore, softScore);
-    }
+        ClusterUtilization clusterUtilization = ClusterUtilization.reuseOrCreate(clusterUtilizationHolder.get(), clusterBalance);
+        clusterUtilizationHolder.set(clusterUtilization);
 
+        ClusterBalanceConstraintConfiguration weights = clusterBalance.getConstraintConfiguration();
+        boolean availabilityZoneCapacityEnabled = !weights.getAvailabilityZoneCapacity().equals(HardMediumSoftLongScore.ZERO);
+        boolean nodeTypeCapacityEnabled = !weights.getNodeTypeCapacity().equals(HardMediumSoftLongScore.ZERO);
 
-    private void visitProcessList(ClusterUtilization resourceCapacity, Set<ClusterNode> usedClusterNodes,
-                                  List<ClusterProcess> processList) {
+        long notAssigned = 0L;
+        long wrongNodeType = 0L;
+        long wrongAvailabilityZone = 0L;
+        long migrationCount = 0L;
 
         // We loop through the processList only once for performance
-        for (ClusterProcess process : processList) {
+        List<ClusterProcess> processList = clusterBalance.getClusterProcesses();
+        for (int i = 0; i < processList.size(); i++) {
+            ClusterProcess process = processList.get(i);
             ClusterNode clusterNode = process.getClusterNode();
 
-            if (clusterNode != null) {
-
-                boolean nodeTypeConstraintMatched = clusterNode.getClusterNodeType().equals(process.getClusterNodeType());
-                boolean azConstraintMatched = clusterNode.getAvailabilityZone().equals(process.getAvailabilityZone());
-
-                if (nodeTypeConstraintMatched && azConstraintMatched) {
-                    Map<ClusterNode, ResourceUsage> nodeResourceUsageMap = resourceCapacity.getNodeResourceUsageMap();
-                    ResourceUsage existingResourceUsage = nodeResourceUsageMap.get(clusterNode);
-                    ResourceUsage resourceUsage = ResourceUsage.builder()
-                            .cpuUsage(existingResourceUsage.getCpuUsage() + process.getCpu())
-                            .memoryUsage(existingResourceUsage.getMemoryUsage() + process.getMemory())
-                            .diskUsage(existingResourceUsage.getDiskUsage() + process.getDisk())
-                            .build();
-                    nodeResourceUsageMap.put(clusterNode, resourceUsage);
-                    // Add clusterNode to used set
-                    usedClusterNodes.add(clusterNode);
-                }
-            }
-        }
-
-    }
-
-    private int resourceAllocationScore(ClusterUtilization clusterUtilization) {
-
-        int score = 0;
-
-        for (Map.Entry<ClusterNode, ResourceUsage> usageEntry : clusterUtilization.getNodeResourceUsageMap().entrySet()) {
-
-            ClusterNode clusterNode = usageEntry.getKey();
-            ResourceUsage clusterNodeResourceUsage = usageEntry.getValue();
-
-            AvailabilityZone availabilityZone = clusterNode.getAvailabilityZone();
-            ClusterNodeType nodeType = clusterNode.getClusterNodeType();
-
-            // Per AZ Resource Usage
-            ResourceUsage availabilityZoneResourceUsage = clusterUtilization.getAzResourceUsageMap().get(availabilityZone);
-            availabilityZoneResourceUsage.setCpuUsage(availabilityZoneResourceUsage.getCpuUsage() + clusterNodeResourceUsage.getCpuUsage());
-            availabilityZoneResourceUsage.setMemoryUsage(availabilityZoneResourceUsage.getMemoryUsage() + clusterNodeResourceUsage.getMemoryUsage());
-            availabilityZoneResourceUsage.setDiskUsage(availabilityZoneResourceUsage.getDiskUsage() + clusterNodeResourceUsage.getDiskUsage());
-            // Per AZ Resource Capacity
-            ResourceCapacity availabilityZoneResourceCapacity = clusterUtilization.getAzResourceCapacityMap().get(availabilityZone);
-
-            // Per AZ CPU Capacity And Usage
-            if (availabilityZoneResourceCapacity.getCpuCapacity() - availabilityZoneResourceUsage.getCpuUsage() < 0) {
-                score += availabilityZoneResourceCapacity.getCpuCapacity() - availabilityZoneResourceUsage.getCpuUsage();
-            }
-            if (availabilityZoneResourceCapacity.getMemoryCapacity() - availabilityZoneResourceUsage.getMemoryUsage() < 0) {
-                score += availabilityZoneResourceCapacity.getMemoryCapacity() - availabilityZoneResourceUsage.getMemoryUsage();
-            }
-            if (availabilityZoneResourceCapacity.getDiskCapacity() - availabilityZoneResourceUsage.getDiskUsage() < 0) {
-                score += availabilityZoneResourceCapacity.getDiskCapacity() - availabilityZoneResourceUsage.getDiskUsage();
-            }
-
-            // Per ClusterNodeType Resource Usage
-            ResourceUsage nodeTypeResourceUsage = clusterUtilization.getNodeTypeResourceUsageMap().get(nodeType);
-            nodeTypeResourceUsage.setCpuUsage(nodeTypeResourceUsage.getCpuUsage() + clusterNodeResourceUsage.getCpuUsage());
-            nodeTypeResourceUsage.setMemoryUsage(nodeTypeResourceUsage.getMemoryUsage() + clusterNodeResourceUsage.getMemoryUsage());
-            nodeTypeResourceUsage.setDiskUsage(nodeTypeResourceUsage.getDiskUsage() + clusterNodeResourceUsage.getDiskUsage());
-
-            // Per ClusterNodeType Resource Capacity
-            ResourceCapacity nodeTypeResourceCapacity = clusterUtilization.getNodeTypeResourceCapacityMap().get(nodeType);
-            // Per ClusterNodeType CPU Capacity And Usage
-            if (nodeTypeResourceCapacity.getCpuCapacity() - nodeTypeResourceUsage.getCpuUsage() < 0) {
-                score += nodeTypeResourceCapacity.getCpuCapacity() - nodeTypeResourceUsage.getCpuUsage();
+            // Moved off its original Cluster Node
+            if (process.isMigrated()) {
+                migrationCount++;
             }
-            if (nodeTypeResourceCapacity.getMemoryCapacity() - nodeTypeResourceUsage.getMemoryUsage() < 0) {
-                score += nodeTypeResourceCapacity.getMemoryCapacity() - nodeTypeResourceUsage.getMemoryUsage();
+            if (clusterNode == null) {
+                // Not Assigned to Any Cluster Node
+                notAssigned += process.getDifficultyIndex();
+                continue;
             }
-            if (nodeTypeResourceCapacity.getDiskCapacity() - nodeTypeResourceUsage.getDiskUsage() < 0) {
-                score += nodeTypeResourceCapacity.getDiskCapacity() - nodeTypeResourceUsage.getDiskUsage();
+            boolean nodeTypeConstraintMatched = clusterNode.getClusterNodeType().equals(process.getClusterNodeType());
+            boolean azConstraintMatched = clusterNode.getAvailabilityZone().equals(process.getAvailabilityZone());
+            // Assigned to Wrong ClusterNodeType
+            if (!nodeTypeConstraintMatched) {
+                wrongNodeType += process.getDifficultyIndex();
             }
-
-            // Per ClusterNode Resource Capacity And Usage
-            if (clusterNode.getCpu() - clusterNodeResourceUsage.getCpuUsage() < 0) {
-                score += clusterNode.getCpu() - clusterNodeResourceUsage.getCpuUsage();
+            // Assigned to Wrong AZ
+            if (!azConstraintMatched) {
+                wrongAvailabilityZone += process.getDifficultyIndex();
             }
-            if (clusterNode.getMemory() - clusterNodeResourceUsage.getMemoryUsage() < 0) {
-                score += clusterNode.getMemory() - clusterNodeResourceUsage.getMemoryUsage();
-            }
-            if (clusterNode.getDisk() - clusterNodeResourceUsage.getDiskUsage() < 0) {
-                score += clusterNode.getDisk() - clusterNodeResourceUsage.getDiskUsage();
+            if (nodeTypeConstraintMatched && azConstraintMatched) {
+                clusterUtilization.addProcess(clusterNode, process, 1, availabilityZoneCapacityEnabled, nodeTypeCapacityEnabled);
             }
         }
 
-        return score;
-    }
-
-
-
-    private int notAssignedToClusterNode(List<ClusterProcess> processSet) {
-
-        int score = 0;
-
-        for (ClusterProcess clusterProcess : processSet) {
-            // not assigned to any cluster node
-            if (clusterProcess.getClusterNode() == null) {
-                score -= clusterProcess.getDifficultyIndex();
-            }
+        HardMediumSoftLongScore score = HardMediumSoftLongScore.ZERO;
+        score = penalize(score, weights.getNotAssigned(), notAssigned);
+        score = penalize(score, weights.getWrongNodeType(), wrongNodeType);
+        score = penalize(score, weights.getWrongAvailabilityZone(), wrongAvailabilityZone);
+        score = penalize(score, weights.getProcessMigration(), migrationCount);
+        score = penalize(score, weights.getMaximumMigrations(), weights.getExcessMigrationCount(migrationCount));
 
+        // Per AZ/NodeType/Node Resource Capacity And Usage
+        if (!weights.getClusterNodeCapacity().equals(HardMediumSoftLongScore.ZERO)) {
+            score = penalize(score, weights.getClusterNodeCapacity(), clusterUtilization.getTotalNodeOverCapacity());
         }
-
-        return score;
-    }
-
-    private int wrongAZAssignment(List<ClusterProcess> processSet) {
-
-        int score = 0;
-
-        for (ClusterProcess clusterProcess : processSet) {
-            if (clusterProcess.getClusterNode() != null && !clusterProcess.getAvailabilityZone().equals(clusterProcess.getClusterNode().getAvailabilityZone())) {
-                score -= clusterProcess.getDifficultyIndex();
-            }
+        if (availabilityZoneCapacityEnabled) {
+            score = penalize(score, weights.getAvailabilityZoneCapacity(), clusterUtilization.getTotalAvailabilityZoneOverCapacity());
+        }
+        if (nodeTypeCapacityEnabled) {
+            score = penalize(score, weights.getNodeTypeCapacity(), clusterUtilization.getTotalNodeTypeOverCapacity());
         }
-        return score;
-    }
-
-    private int wrongNodeTypeAssignment(List<ClusterProcess> processSet) {
-
-        int score = 0;
 
-        for (ClusterProcess clusterProcess : processSet) {
-            if (clusterProcess.getClusterNode() != null && !clusterProcess.getClusterNodeType().equals(clusterProcess.getClusterNode().getClusterNodeType())) {
-                score -= clusterProcess.getDifficultyIndex();
+        // Cost incurred based on Cluster Nodes Used
+        long cost = 0L;
+        List<ClusterNode> clusterNodes = clusterBalance.getClusterNodes();
+        for (int i = 0; i < clusterNodes.size(); i++) {
+            ClusterNode clusterNode = clusterNodes.get(i);
+            if (clusterUtilization.getProcessCount(clusterNode) > 0) {
+                cost += clusterNode.getCost();
             }
         }
-        return score;
+        return penalize(score, weights.getClusterNodeCost(), cost);
     }
 
-    private int usedClusterNodesCostScore(Set<ClusterNode> usedClusterNodes) {
-
-        int score = 0;
-        for (ClusterNode usedClusterNode : usedClusterNodes) {
-            score -= usedClusterNode.getCost();
-        }
-        return score;
+    private static HardMediumSoftLongScore penalize(HardMediumSoftLongScore score, HardMediumSoftLongScore weight, long matchWeight) {
+        return HardMediumSoftLongScore.of(score.getHardScore() - weight.getHardScore() * matchWeight,
+                score.getMediumScore() - weight.getMediumScore() * matchWeight,
+                score.getSoftScore() - weight.getSoftScore() * matchWeight);
     }
 }
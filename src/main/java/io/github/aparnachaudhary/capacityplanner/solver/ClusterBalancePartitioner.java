@@ -0,0 +1,120 @@
+package io.github.aparnachaudhary.capacityplanner.solver;
+
+import io.github.aparnachaudhary.capacityplanner.domain.AvailabilityZone;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNodeType;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.apache.commons.lang3.tuple.Pair;
+import org.optaplanner.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a {@link ClusterBalance} into one part per ({@link AvailabilityZone}, {@link ClusterNodeType}):
+ * a process placed outside of its own AZ or node type is always a hard constraint violation,
+ * so the parts can be solved independently.
+ * Processes that are assigned to a node of another part are unassigned in their own part, unless they are pinned:
+ * those are left out of every part.
+ * The AZ and node-type capacity rules are implied by the node capacity rules within a part,
+ * so they only matter again for the polish phase after the partitioned search.
+ * The maximumMigrationCount is split over the parts by their share of the processes that can migrate,
+ * so the parts together never plan more migrations than the whole solution may do.
+ */
+public class ClusterBalancePartitioner implements SolutionPartitioner<ClusterBalance> {
+
+    @Override
+    public List<ClusterBalance> splitWorkingSolution(ScoreDirector<ClusterBalance> scoreDirector, Integer runnablePartThreadLimit) {
+
+        ClusterBalance originalSolution = scoreDirector.getWorkingSolution();
+        Map<Pair<AvailabilityZone, ClusterNodeType>, ClusterBalance> partMap = new LinkedHashMap<>();
+
+        originalSolution.getClusterNodes().forEach(clusterNode ->
+                getPart(partMap, originalSolution, clusterNode.getAvailabilityZone(), clusterNode.getClusterNodeType())
+                        .getClusterNodes().add(clusterNode));
+
+        originalSolution.getClusterProcesses().forEach(originalProcess -> {
+            ClusterNode clusterNode = originalProcess.getClusterNode();
+            if (originalProcess.isPinned() && clusterNode != null && !isInPart(clusterNode, originalProcess)) {
+                // Left out, so merging the parts back never unassigns it
+                return;
+            }
+            ClusterBalance part = getPart(partMap, originalSolution, originalProcess.getAvailabilityZone(), originalProcess.getClusterNodeType());
+            // The part solvers change the planning variable, so the part needs its own process instances
+            part.getClusterProcesses().add(originalProcess.toBuilder()
+                    .clusterNode(clusterNode != null && isInPart(clusterNode, originalProcess) ? clusterNode : null)
+                    .build());
+        });
+
+        List<ClusterBalance> partList = new ArrayList<>(partMap.size());
+        partMap.values().stream()
+                .filter(part -> !part.getClusterProcesses().isEmpty())
+                .forEach(partList::add);
+        Integer maximumMigrationCount = originalSolution.getConstraintConfiguration().getMaximumMigrationCount();
+        if (maximumMigrationCount != null) {
+            splitMaximumMigrationCount(partList, maximumMigrationCount);
+        }
+        return partList;
+    }
+
+    /**
+     * Largest remainder apportionment, so the part maximums add up to the maximumMigrationCount exactly.
+     */
+    private static void splitMaximumMigrationCount(List<ClusterBalance> partList, int maximumMigrationCount) {
+        long[] migratableCounts = new long[partList.size()];
+        long totalMigratableCount = 0L;
+        for (int i = 0; i < partList.size(); i++) {
+            migratableCounts[i] = partList.get(i).getClusterProcesses().stream()
+                    .filter(process -> !process.isPinned() && process.getOriginalClusterNode() != null)
+                    .count();
+            totalMigratableCount += migratableCounts[i];
+        }
+        int[] partMaximums = new int[partList.size()];
+        if (totalMigratableCount > 0L) {
+            long[] remainders = new long[partList.size()];
+            int remainingCount = maximumMigrationCount;
+            for (int i = 0; i < partList.size(); i++) {
+                long share = migratableCounts[i] * maximumMigrationCount;
+                partMaximums[i] = (int) (share / totalMigratableCount);
+                remainders[i] = share % totalMigratableCount;
+                remainingCount -= partMaximums[i];
+            }
+            for (; remainingCount > 0; remainingCount--) {
+                int largestRemainderIndex = 0;
+                for (int i = 1; i < partList.size(); i++) {
+                    if (remainders[i] > remainders[largestRemainderIndex]) {
+                        largestRemainderIndex = i;
+                    }
+                }
+                partMaximums[largestRemainderIndex]++;
+                remainders[largestRemainderIndex] = -1L;
+            }
+        }
+        for (int i = 0; i < partList.size(); i++) {
+            ClusterBalance part = partList.get(i);
+            part.setConstraintConfiguration(part.getConstraintConfiguration().withMaximumMigrationCount(partMaximums[i]));
+        }
+    }
+
+    private static ClusterBalance getPart(Map<Pair<AvailabilityZone, ClusterNodeType>, ClusterBalance> partMap, ClusterBalance originalSolution,
+                                          AvailabilityZone availabilityZone, ClusterNodeType nodeType) {
+        return partMap.computeIfAbsent(Pair.of(availabilityZone, nodeType), key -> ClusterBalance.builder()
+                .id(originalSolution.getId())
+                .clusterNodes(new ArrayList<>())
+                .clusterProcesses(new ArrayList<>())
+                .availabilityZones(originalSolution.getAvailabilityZones())
+                .nodeTypes(originalSolution.getNodeTypes())
+                .resourceCapacities(originalSolution.getResourceCapacities())
+                .constraintConfiguration(originalSolution.getConstraintConfiguration())
+                .build());
+    }
+
+    private static boolean isInPart(ClusterNode clusterNode, ClusterProcess process) {
+        return process.getAvailabilityZone().equals(clusterNode.getAvailabilityZone())
+                && process.getClusterNodeType().equals(clusterNode.getClusterNodeType());
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.aparnachaudhary.capacityplanner.solver.move;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import lombok.EqualsAndHashCode;
+import org.optaplanner.core.impl.heuristic.move.AbstractMove;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Moves several processes at once, each to its own cluster node: a swap, a node evacuation or a pillar move,
+ * see the factories in {@link io.github.aparnachaudhary.capacityplanner.solver.move.factory}.
+ * Every process occurs only once and every target node is in its value range.
+ */
+@EqualsAndHashCode(callSuper = false)
+public class ClusterProcessesChangeMove extends AbstractMove<ClusterBalance> {
+
+    private final List<ClusterProcess> processes;
+    private final List<ClusterNode> toClusterNodes;
+
+    /**
+     * @param processes never empty, none of them pinned
+     * @param toClusterNodes the new cluster node of the process at the same index
+     */
+    public ClusterProcessesChangeMove(List<ClusterProcess> processes, List<ClusterNode> toClusterNodes) {
+        if (processes.size() != toClusterNodes.size()) {
+            throw new IllegalArgumentException("The processes size (" + processes.size()
+                    + ") differs from the toClusterNodes size (" + toClusterNodes.size() + ").");
+        }
+        this.processes = processes;
+        this.toClusterNodes = toClusterNodes;
+    }
+
+    public List<ClusterProcess> getProcesses() {
+        return processes;
+    }
+
+    public List<ClusterNode> getToClusterNodes() {
+        return toClusterNodes;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<ClusterBalance> scoreDirector) {
+        for (int i = 0; i < processes.size(); i++) {
+            if (processes.get(i).getClusterNode() != toClusterNodes.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected ClusterProcessesChangeMove createUndoMove(ScoreDirector<ClusterBalance> scoreDirector) {
+        List<ClusterNode> fromClusterNodes = new ArrayList<>(processes.size());
+        processes.forEach(process -> fromClusterNodes.add(process.getClusterNode()));
+        return new ClusterProcessesChangeMove(processes, fromClusterNodes);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<ClusterBalance> scoreDirector) {
+        for (int i = 0; i < processes.size(); i++) {
+            ClusterProcess process = processes.get(i);
+            ClusterNode toClusterNode = toClusterNodes.get(i);
+            if (process.getClusterNode() != toClusterNode) {
+                scoreDirector.beforeVariableChanged(process, "clusterNode");
+                process.setClusterNode(toClusterNode);
+                scoreDirector.afterVariableChanged(process, "clusterNode");
+            }
+        }
+    }
+
+    @Override
+    public ClusterProcessesChangeMove rebase(ScoreDirector<ClusterBalance> destinationScoreDirector) {
+        return new ClusterProcessesChangeMove(rebaseList(processes, destinationScoreDirector),
+                rebaseList(toClusterNodes, destinationScoreDirector));
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return getClass().getSimpleName() + "(" + ClusterProcess.class.getSimpleName() + ".clusterNode)";
+    }
+
+    @Override
+    public Collection<ClusterProcess> getPlanningEntities() {
+        return processes;
+    }
+
+    @Override
+    public Collection<ClusterNode> getPlanningValues() {
+        // Without duplicates, a swap has every node twice
+        return new LinkedHashSet<>(toClusterNodes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < processes.size(); i++) {
+            if (i > 0) {
+                s.append(", ");
+            }
+            ClusterProcess process = processes.get(i);
+            s.append("ClusterProcess-").append(process.getId())
+                    .append(" {").append(process.getClusterNode()).append(" -> ").append(toClusterNodes.get(i)).append("}");
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.aparnachaudhary.capacityplanner.solver.move.factory;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.solver.move.ClusterProcessesChangeMove;
+import org.optaplanner.core.impl.domain.variable.descriptor.GenuineVariableDescriptor;
+import org.optaplanner.core.impl.domain.variable.inverserelation.CollectionInverseVariableDemand;
+import org.optaplanner.core.impl.domain.variable.inverserelation.CollectionInverseVariableSupply;
+import org.optaplanner.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Creates {@link ClusterProcessesChangeMove}s at random, only within the processes of the same AZ and node type,
+ * so a move never assigns a process to a node outside its value range. Pinned processes are never moved.
+ * <p>
+ * A solver creates its own instance of the factory, the move selection runs in the solver thread only.
+ */
+public abstract class AbstractClusterProcessMoveIteratorFactory implements MoveIteratorFactory<ClusterBalance> {
+
+    // Not doable, the local search skips it
+    private static final ClusterProcessesChangeMove NOT_DOABLE_MOVE =
+            new ClusterProcessesChangeMove(Collections.emptyList(), Collections.emptyList());
+
+    private CompatibleProcessGroups groups;
+
+    CompatibleProcessGroups getGroups(ScoreDirector<ClusterBalance> scoreDirector) {
+        ClusterBalance clusterBalance = scoreDirector.getWorkingSolution();
+        CollectionInverseVariableSupply clusterNodeInverseSupply = demandClusterNodeInverseSupply(scoreDirector);
+        if (groups == null || groups.isOutdated(clusterBalance, clusterNodeInverseSupply)) {
+            groups = new CompatibleProcessGroups(clusterBalance, clusterNodeInverseSupply);
+        }
+        return groups;
+    }
+
+    /**
+     * The processes per cluster node, kept up to date by the score director on every move,
+     * so a move reads the processes of a node without scanning all processes.
+     * The score director returns the same supply on every demand.
+     */
+    private static CollectionInverseVariableSupply demandClusterNodeInverseSupply(ScoreDirector<ClusterBalance> scoreDirector) {
+        InnerScoreDirector<ClusterBalance> innerScoreDirector = (InnerScoreDirector<ClusterBalance>) scoreDirector;
+        GenuineVariableDescriptor<ClusterBalance> clusterNodeDescriptor = innerScoreDirector.getSolutionDescriptor()
+                .findEntityDescriptorOrFail(ClusterProcess.class).getGenuineVariableDescriptor("clusterNode");
+        return innerScoreDirector.getSupplyManager().demand(new CollectionInverseVariableDemand(clusterNodeDescriptor));
+    }
+
+    @Override
+    public long getSize(ScoreDirector<ClusterBalance> scoreDirector) {
+        return getGroups(scoreDirector).getProcessCount();
+    }
+
+    @Override
+    public Iterator<ClusterProcessesChangeMove> createOriginalMoveIterator(ScoreDirector<ClusterBalance> scoreDirector) {
+        throw new UnsupportedOperationException("The " + getClass().getSimpleName()
+                + " only supports random selection (selectionOrder RANDOM).");
+    }
+
+    @Override
+    public Iterator<ClusterProcessesChangeMove> createRandomMoveIterator(ScoreDirector<ClusterBalance> scoreDirector,
+                                                                        Random workingRandom) {
+        CompatibleProcessGroups stepGroups = getGroups(scoreDirector);
+        return new Iterator<ClusterProcessesChangeMove>() {
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public ClusterProcessesChangeMove next() {
+                ClusterProcessesChangeMove move = createRandomMove(stepGroups, workingRandom);
+                return move != null ? move : NOT_DOABLE_MOVE;
+            }
+        };
+    }
+
+    /**
+     * @return null if the picked processes do not allow such a move, for example a node with only pinned processes
+     */
+    abstract ClusterProcessesChangeMove createRandomMove(CompatibleProcessGroups groups, Random workingRandom);
+}
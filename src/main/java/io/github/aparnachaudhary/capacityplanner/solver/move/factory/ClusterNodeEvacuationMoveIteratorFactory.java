@@ -0,0 +1,38 @@
+package io.github.aparnachaudhary.capacityplanner.solver.move.factory;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.solver.move.ClusterProcessesChangeMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Evacuates a cluster node: moves all its processes (of the AZ and node type of a random process) to other nodes,
+ * each to the node of another random process of its group, so they fill nodes that are used already.
+ * No single change move frees a node with several processes without making the score worse in between,
+ * this one saves the node cost at once. A node with a pinned process is never freed, its other processes still move.
+ */
+public class ClusterNodeEvacuationMoveIteratorFactory extends AbstractClusterProcessMoveIteratorFactory {
+
+    @Override
+    ClusterProcessesChangeMove createRandomMove(CompatibleProcessGroups groups, Random workingRandom) {
+        ClusterProcess process = groups.pickMovableProcess(workingRandom);
+        if (process == null) {
+            return null;
+        }
+        ClusterNode fromClusterNode = process.getClusterNode();
+        List<ClusterProcess> processes = groups.findMovableProcessesOn(process, fromClusterNode);
+        List<ClusterNode> toClusterNodes = new ArrayList<>(processes.size());
+        for (ClusterProcess evacuatedProcess : processes) {
+            // Pinned processes still use their node, so they are valid targets
+            ClusterProcess other = groups.pickProcessOnOtherNode(evacuatedProcess, fromClusterNode, false, workingRandom);
+            if (other == null) {
+                return null;
+            }
+            toClusterNodes.add(other.getClusterNode());
+        }
+        return new ClusterProcessesChangeMove(processes, toClusterNodes);
+    }
+}
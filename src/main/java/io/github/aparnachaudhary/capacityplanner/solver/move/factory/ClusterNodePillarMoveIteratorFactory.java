@@ -0,0 +1,41 @@
+package io.github.aparnachaudhary.capacityplanner.solver.move.factory;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.solver.move.ClusterProcessesChangeMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Pillar moves between two cluster nodes of the same AZ and node type, a pillar being all processes on a node:
+ * half of the moves merge the pillar of one node into the other node, the other half swap both pillars,
+ * which moves a set of processes to a cheaper node that fits them. Pinned processes stay where they are.
+ */
+public class ClusterNodePillarMoveIteratorFactory extends AbstractClusterProcessMoveIteratorFactory {
+
+    @Override
+    ClusterProcessesChangeMove createRandomMove(CompatibleProcessGroups groups, Random workingRandom) {
+        ClusterProcess left = groups.pickMovableProcess(workingRandom);
+        if (left == null) {
+            return null;
+        }
+        ClusterProcess right = groups.pickProcessOnOtherNode(left, left.getClusterNode(), false, workingRandom);
+        if (right == null) {
+            return null;
+        }
+        ClusterNode leftClusterNode = left.getClusterNode();
+        ClusterNode rightClusterNode = right.getClusterNode();
+
+        List<ClusterProcess> processes = groups.findMovableProcessesOn(left, leftClusterNode);
+        List<ClusterNode> toClusterNodes = new ArrayList<>();
+        processes.forEach(process -> toClusterNodes.add(rightClusterNode));
+        if (workingRandom.nextBoolean()) {
+            List<ClusterProcess> rightProcesses = groups.findMovableProcessesOn(right, rightClusterNode);
+            processes.addAll(rightProcesses);
+            rightProcesses.forEach(process -> toClusterNodes.add(leftClusterNode));
+        }
+        return new ClusterProcessesChangeMove(processes, toClusterNodes);
+    }
+}
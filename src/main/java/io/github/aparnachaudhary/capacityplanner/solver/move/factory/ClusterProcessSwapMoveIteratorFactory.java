@@ -0,0 +1,29 @@
+package io.github.aparnachaudhary.capacityplanner.solver.move.factory;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.solver.move.ClusterProcessesChangeMove;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Swaps the cluster nodes of two processes of the same AZ and node type.
+ * Unlike two change moves, a swap keeps both nodes used, so it trades a large process for a smaller one
+ * on a full node without a capacity violation in between.
+ */
+public class ClusterProcessSwapMoveIteratorFactory extends AbstractClusterProcessMoveIteratorFactory {
+
+    @Override
+    ClusterProcessesChangeMove createRandomMove(CompatibleProcessGroups groups, Random workingRandom) {
+        ClusterProcess left = groups.pickMovableProcess(workingRandom);
+        if (left == null) {
+            return null;
+        }
+        ClusterProcess right = groups.pickProcessOnOtherNode(left, left.getClusterNode(), true, workingRandom);
+        if (right == null) {
+            return null;
+        }
+        return new ClusterProcessesChangeMove(Arrays.asList(left, right),
+                Arrays.asList(right.getClusterNode(), left.getClusterNode()));
+    }
+}
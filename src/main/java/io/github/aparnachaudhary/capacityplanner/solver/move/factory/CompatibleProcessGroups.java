@@ -0,0 +1,138 @@
+package io.github.aparnachaudhary.capacityplanner.solver.move.factory;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import org.optaplanner.core.impl.domain.variable.inverserelation.CollectionInverseVariableSupply;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The processes grouped by their value range: processes of the same AZ and node type share the same
+ * compatibleClusterNodes list, so any of them can take the cluster node of another one in its group.
+ * <p>
+ * Only depends on the process and cluster node lists and the pins of a solution; every problem fact change
+ * that adds, removes or pins a process or adds or removes a node replaces one of these lists,
+ * so it is reused across steps until {@link #isOutdated(ClusterBalance, CollectionInverseVariableSupply)}.
+ * The assignments change every step, so they are only read while picking;
+ * the processes of a cluster node come from the inverse variable supply, which the score director keeps up to date.
+ * Only processes on a node in their value range are picked: an imported or randomly assigned process
+ * on another node is left to the change moves, so these moves never assign a node outside a value range.
+ */
+class CompatibleProcessGroups {
+
+    // Random picking gives up after this many unsuitable processes, a move factory then returns a not doable move
+    private static final int MAXIMUM_PICK_ATTEMPTS = 20;
+
+    private final List<ClusterProcess> processes;
+    private final List<ClusterNode> clusterNodes;
+    private final Map<List<ClusterNode>, List<ClusterProcess>> groupMap;
+    // Sampled instead of all processes, so a re-plan with most processes pinned still finds a movable one
+    private final List<ClusterProcess> movableProcesses;
+    private final Map<List<ClusterNode>, List<ClusterProcess>> movableGroupMap;
+    private final Map<List<ClusterNode>, Set<ClusterNode>> compatibleClusterNodeSetMap;
+    private final CollectionInverseVariableSupply clusterNodeInverseSupply;
+
+    CompatibleProcessGroups(ClusterBalance clusterBalance, CollectionInverseVariableSupply clusterNodeInverseSupply) {
+        this.clusterNodeInverseSupply = clusterNodeInverseSupply;
+        processes = clusterBalance.getClusterProcesses();
+        clusterNodes = clusterBalance.getClusterNodes();
+        groupMap = new IdentityHashMap<>();
+        processes.forEach(process -> groupMap
+                .computeIfAbsent(process.getCompatibleClusterNodes(), key -> new ArrayList<>())
+                .add(process));
+        movableProcesses = new ArrayList<>();
+        movableGroupMap = new IdentityHashMap<>(groupMap.size());
+        groupMap.keySet().forEach(compatibleClusterNodes -> movableGroupMap.put(compatibleClusterNodes, new ArrayList<>()));
+        processes.stream().filter(process -> !process.isPinned()).forEach(process -> {
+            movableProcesses.add(process);
+            movableGroupMap.get(process.getCompatibleClusterNodes()).add(process);
+        });
+        compatibleClusterNodeSetMap = new IdentityHashMap<>(groupMap.size());
+        groupMap.keySet().forEach(compatibleClusterNodes -> {
+            Set<ClusterNode> compatibleClusterNodeSet = Collections.newSetFromMap(new IdentityHashMap<>(compatibleClusterNodes.size()));
+            compatibleClusterNodeSet.addAll(compatibleClusterNodes);
+            compatibleClusterNodeSetMap.put(compatibleClusterNodes, compatibleClusterNodeSet);
+        });
+    }
+
+    boolean isOutdated(ClusterBalance clusterBalance, CollectionInverseVariableSupply clusterNodeInverseSupply) {
+        return clusterBalance.getClusterProcesses() != processes || clusterBalance.getClusterNodes() != clusterNodes
+                || this.clusterNodeInverseSupply != clusterNodeInverseSupply;
+    }
+
+    int getProcessCount() {
+        return processes.size();
+    }
+
+    /**
+     * @return the processes that can take each other's cluster node, including the process itself
+     */
+    List<ClusterProcess> getGroup(ClusterProcess process) {
+        return groupMap.get(process.getCompatibleClusterNodes());
+    }
+
+    private boolean isOnCompatibleClusterNode(ClusterProcess process) {
+        return process.getClusterNode() != null
+                && compatibleClusterNodeSetMap.get(process.getCompatibleClusterNodes()).contains(process.getClusterNode());
+    }
+
+    /**
+     * @return a process on a node of its value range that is not pinned, null if none was found
+     */
+    ClusterProcess pickMovableProcess(Random workingRandom) {
+        if (movableProcesses.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < MAXIMUM_PICK_ATTEMPTS; i++) {
+            ClusterProcess process = movableProcesses.get(workingRandom.nextInt(movableProcesses.size()));
+            if (isOnCompatibleClusterNode(process)) {
+                return process;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param movableOnly true to skip pinned processes
+     * @return a process in the group of the given process on another cluster node of its value range
+     * than excludedClusterNode, null if none was found
+     */
+    ClusterProcess pickProcessOnOtherNode(ClusterProcess process, ClusterNode excludedClusterNode,
+                                          boolean movableOnly, Random workingRandom) {
+        List<ClusterProcess> group = movableOnly ? movableGroupMap.get(process.getCompatibleClusterNodes()) : getGroup(process);
+        if (group.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < MAXIMUM_PICK_ATTEMPTS; i++) {
+            ClusterProcess other = group.get(workingRandom.nextInt(group.size()));
+            if (other.getClusterNode() != excludedClusterNode && isOnCompatibleClusterNode(other)) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the processes in the group of the given process that run on the cluster node and are not pinned,
+     * sorted by id
+     */
+    List<ClusterProcess> findMovableProcessesOn(ClusterProcess process, ClusterNode clusterNode) {
+        List<ClusterProcess> movableProcesses = new ArrayList<>();
+        for (Object processOnClusterNode : clusterNodeInverseSupply.getInverseCollection(clusterNode)) {
+            ClusterProcess other = (ClusterProcess) processOnClusterNode;
+            if (other.getCompatibleClusterNodes() == process.getCompatibleClusterNodes() && !other.isPinned()) {
+                movableProcesses.add(other);
+            }
+        }
+        // The supply iterates in identity hash order, which differs between runs and would break reproducibility
+        Collections.sort(movableProcesses);
+        return movableProcesses;
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.aparnachaudhary.capacityplanner;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+/**
+ * The solver setup that most solver tests share.
+ */
+public final class SolverTestSupport {
+
+    public static final String SOLVER_CONFIG = "solver/capacity-planning-solver-config.xml";
+
+    private SolverTestSupport() {
+    }
+
+    /**
+     * @return the production solver config, solving on the calling thread only, so the result is reproducible
+     */
+    public static SolverFactory<ClusterBalance> solverFactory() {
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource(SOLVER_CONFIG);
+        solverFactory.getSolverConfig().setMoveThreadCount("NONE");
+        return solverFactory;
+    }
+
+    /**
+     * @return like {@link #solverFactory()}, but terminating after 2 seconds
+     */
+    public static SolverFactory<ClusterBalance> quickSolverFactory() {
+        SolverFactory<ClusterBalance> solverFactory = solverFactory();
+        TerminationConfig terminationConfig = new TerminationConfig();
+        terminationConfig.setSecondsSpentLimit(2L);
+        solverFactory.getSolverConfig().setTerminationConfig(terminationConfig);
+        return solverFactory;
+    }
+
+    /**
+     * @return 200 unassigned processes on 50 cluster nodes, the same for every call
+     */
+    public static ClusterBalance createProblem() {
+        return new ClusterBalanceGenerator(37L).createClusterBalance(200);
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.aparnachaudhary.capacityplanner.benchmark;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import org.optaplanner.benchmark.api.PlannerBenchmark;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+
+/**
+ * Runs the solver configurations of a benchmark config (by default {@code benchmark/capacity-planning-benchmark-config.xml})
+ * on generated problems, much larger than the bundled CSV data.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec@planner-benchmark [-Dplanner.benchmark.config=...]},
+ * the HTML report and CSV statistics end up in {@code local/benchmarkReport}.
+ */
+public class CapacityPlannerBenchmarkApp {
+
+    private static final String DEFAULT_BENCHMARK_CONFIG = "benchmark/capacity-planning-benchmark-config.xml";
+    private static final int[] PROCESS_COUNTS = {400, 2000, 10000};
+
+    public static void main(String[] args) {
+        PlannerBenchmarkFactory benchmarkFactory = PlannerBenchmarkFactory.createFromXmlResource(
+                args.length > 0 ? args[0] : DEFAULT_BENCHMARK_CONFIG);
+
+        ClusterBalance[] problems = new ClusterBalance[PROCESS_COUNTS.length];
+        for (int i = 0; i < PROCESS_COUNTS.length; i++) {
+            problems[i] = new ClusterBalanceGenerator(37L).createClusterBalance(PROCESS_COUNTS[i]);
+            // The problem name in the report is the ClusterBalance toString
+            problems[i].setId((long) PROCESS_COUNTS[i]);
+        }
+
+        PlannerBenchmark plannerBenchmark = benchmarkFactory.buildPlannerBenchmark(problems);
+        plannerBenchmark.benchmark();
+    }
+}
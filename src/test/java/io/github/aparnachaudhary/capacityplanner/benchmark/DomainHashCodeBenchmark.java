@@ -0,0 +1,102 @@
+package io.github.aparnachaudhary.capacityplanner.benchmark;
+
+import io.github.aparnachaudhary.capacityplanner.domain.AvailabilityZone;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import io.github.aparnachaudhary.capacityplanner.solver.CloudBalancingMapBasedEasyScoreCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.optaplanner.core.api.score.Score;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash lookups of domain objects, as the score calculation and the solver do them.
+ * <ul>
+ * <li>{@code clusterNodeMapLookup}: the usage array of the cluster node of every process.</li>
+ * <li>{@code availabilityZoneMapLookup}: the AZ of every cluster node, as in {@link ClusterBalance#initializeResourceCapacity()}.</li>
+ * <li>{@code processSetLookup}: every process in a set of processes, as tabu search and Drools do.</li>
+ * <li>{@code mapBasedEasyScore}: a whole {@link CloudBalancingMapBasedEasyScoreCalculator} score.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.includes=DomainHashCodeBenchmark} before and after
+ * a change to the equals and hashCode of the domain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DomainHashCodeBenchmark {
+
+    @Param({"10000", "100000"})
+    public int processCount;
+
+    private ClusterBalance clusterBalance;
+    private List<ClusterProcess> processes;
+    private List<ClusterNode> clusterNodes;
+
+    private Map<ClusterNode, long[]> usageMap;
+    private Map<AvailabilityZone, long[]> availabilityZoneMap;
+    private Set<ClusterProcess> processSet;
+    private CloudBalancingMapBasedEasyScoreCalculator mapBasedEasyScoreCalculator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClusterBalanceGenerator generator = new ClusterBalanceGenerator(37L);
+        clusterBalance = generator.createClusterBalance(processCount);
+        generator.assignRandomly(clusterBalance);
+        processes = clusterBalance.getClusterProcesses();
+        clusterNodes = clusterBalance.getClusterNodes();
+
+        usageMap = new HashMap<>(clusterNodes.size());
+        clusterNodes.forEach(clusterNode -> usageMap.put(clusterNode, new long[1]));
+        availabilityZoneMap = new HashMap<>();
+        clusterBalance.getAvailabilityZones().forEach(availabilityZone -> availabilityZoneMap.put(availabilityZone, new long[1]));
+        processSet = new HashSet<>(processes);
+        mapBasedEasyScoreCalculator = new CloudBalancingMapBasedEasyScoreCalculator();
+    }
+
+    @Benchmark
+    public long clusterNodeMapLookup() {
+        long sum = 0L;
+        for (ClusterProcess process : processes) {
+            ClusterNode clusterNode = process.getClusterNode();
+            if (clusterNode != null) {
+                sum += usageMap.get(clusterNode).length;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long availabilityZoneMapLookup() {
+        long sum = 0L;
+        for (ClusterNode clusterNode : clusterNodes) {
+            sum += availabilityZoneMap.get(clusterNode.getAvailabilityZone()).length;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int processSetLookup() {
+        int count = 0;
+        for (ClusterProcess process : processes) {
+            if (processSet.contains(process)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public Score mapBasedEasyScore() {
+        return mapBasedEasyScoreCalculator.calculateScore(clusterBalance);
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.aparnachaudhary.capacityplanner.benchmark;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import io.github.aparnachaudhary.capacityplanner.solver.*;
+import org.openjdk.jmh.annotations.*;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.impl.score.director.InnerScoreDirectorFactory;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.score.director.easy.EasyScoreCalculator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the score calculator implementations on generated problems.
+ * <ul>
+ * <li>{@code fullScore}: score a whole solution from scratch, as done once per solve or after a problem fact change.</li>
+ * <li>{@code singleMove}: change one process and score again, as done for every move the solver evaluates.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}.
+ * The EASY calculator loops over processes for every node, so expect its 100k runs to be very slow.
+ * The DRL has the same rules as CLOUD_CAPACITY_EASY, CONSTRAINT_STREAMS and INCREMENTAL (capacity per node, AZ and
+ * node type, wrong AZ or node type, not assigned, node cost and migrations), so it measures Drools on the full model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ScoreCalculatorBenchmark {
+
+    public enum ScoreCalculatorType {
+        EASY,
+        MAP_BASED_EASY,
+        CLOUD_CAPACITY_EASY,
+        CONSTRAINT_STREAMS,
+        DRL,
+        INCREMENTAL
+    }
+
+    @Param({"1000", "10000", "100000"})
+    public int processCount;
+
+    @Param
+    public ScoreCalculatorType scoreCalculatorType;
+
+    private ClusterBalance clusterBalance;
+    private List<ClusterNode> clusterNodes;
+    private List<ClusterProcess> processes;
+    private Random random;
+
+    // Exactly one of both is set
+    private EasyScoreCalculator<ClusterBalance> easyScoreCalculator;
+    private ScoreDirector<ClusterBalance> scoreDirector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClusterBalanceGenerator generator = new ClusterBalanceGenerator(37L);
+        clusterBalance = generator.createClusterBalance(processCount);
+        generator.assignRandomly(clusterBalance);
+        clusterNodes = clusterBalance.getClusterNodes();
+        processes = clusterBalance.getClusterProcesses();
+        random = new Random(37L);
+
+        switch (scoreCalculatorType) {
+            case EASY:
+                // Returns a HardSoftLongScore, which the ClusterBalance score property does not accept, so call it directly
+                easyScoreCalculator = new CloudBalancingEasyScoreCalculator();
+                break;
+            case MAP_BASED_EASY:
+                easyScoreCalculator = new CloudBalancingMapBasedEasyScoreCalculator();
+                break;
+            case CLOUD_CAPACITY_EASY:
+                easyScoreCalculator = new CloudCapacityScoreCalculator();
+                break;
+            case CONSTRAINT_STREAMS:
+                ScoreDirectorFactoryConfig constraintStreamsConfig = new ScoreDirectorFactoryConfig();
+                constraintStreamsConfig.setConstraintProviderClass(CloudBalancingConstraintProvider.class);
+                scoreDirector = buildScoreDirector(constraintStreamsConfig);
+                break;
+            case DRL:
+                ScoreDirectorFactoryConfig drlConfig = new ScoreDirectorFactoryConfig();
+                drlConfig.setScoreDrlList(Collections.singletonList("solver/capacity-planning-solver-rules.drl"));
+                scoreDirector = buildScoreDirector(drlConfig);
+                break;
+            case INCREMENTAL:
+                ScoreDirectorFactoryConfig incrementalConfig = new ScoreDirectorFactoryConfig();
+                incrementalConfig.setIncrementalScoreCalculatorClass(CloudBalancingIncrementalScoreCalculator.class);
+                scoreDirector = buildScoreDirector(incrementalConfig);
+                break;
+            default:
+                throw new IllegalStateException("The scoreCalculatorType (" + scoreCalculatorType + ") is not implemented.");
+        }
+        if (scoreDirector != null) {
+            scoreDirector.setWorkingSolution(clusterBalance);
+        }
+    }
+
+    private ScoreDirector<ClusterBalance> buildScoreDirector(ScoreDirectorFactoryConfig scoreDirectorFactoryConfig) {
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource("solver/capacity-planning-solver-config.xml");
+        solverFactory.getSolverConfig().setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        InnerScoreDirectorFactory<ClusterBalance> scoreDirectorFactory = (InnerScoreDirectorFactory<ClusterBalance>) solverFactory.buildSolver().getScoreDirectorFactory();
+        // Like the solver outside of the asserting environment modes: no lookups, no constraint match tracking
+        return scoreDirectorFactory.buildScoreDirector(false, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (scoreDirector != null) {
+            scoreDirector.close();
+        }
+    }
+
+    @Benchmark
+    public Score fullScore() {
+        if (easyScoreCalculator != null) {
+            return easyScoreCalculator.calculateScore(clusterBalance);
+        }
+        scoreDirector.setWorkingSolution(clusterBalance);
+        return scoreDirector.calculateScore();
+    }
+
+    @Benchmark
+    public Score singleMove() {
+        ClusterProcess process = processes.get(random.nextInt(processes.size()));
+        int nodeIndex = random.nextInt(clusterNodes.size() + 1);
+        ClusterNode toClusterNode = nodeIndex == clusterNodes.size() ? null : clusterNodes.get(nodeIndex);
+        if (easyScoreCalculator != null) {
+            process.setClusterNode(toClusterNode);
+            return easyScoreCalculator.calculateScore(clusterBalance);
+        }
+        scoreDirector.beforeVariableChanged(process, "clusterNode");
+        process.setClusterNode(toClusterNode);
+        scoreDirector.afterVariableChanged(process, "clusterNode");
+        scoreDirector.triggerVariableListeners();
+        return scoreDirector.calculateScore();
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.aparnachaudhary.capacityplanner.benchmark;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.extension.ClusterNodeStrengthWeightFactory;
+import io.github.aparnachaudhary.capacityplanner.extension.ProcessDifficultySelectionSorter;
+import io.github.aparnachaudhary.capacityplanner.extension.ProcessDifficultyWeightFactory;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import org.apache.commons.lang3.builder.CompareToBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.optaplanner.core.config.heuristic.selector.common.decorator.SelectionSorterOrder;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.ComparatorSelectionSorter;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorter;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.WeightFactorySelectionSorter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts with the weight factories against comparators that build a {@link CompareToBuilder}
+ * and recompute the difficulty index on every comparison, as the extension package did before.
+ * {@code *WeightFactorySort} uses OptaPlanner's {@link WeightFactorySelectionSorter} (a TreeMap of the weights),
+ * {@code processWeightArraySort} the sorter of the solver config, which sorts an array of the weights.
+ * <ul>
+ * <li>{@code process*Sort}: all processes by difficulty, as FIRST_FIT_DECREASING does once before it starts.</li>
+ * <li>{@code clusterNode*Sort}: the cluster nodes of one AZ and node type by strength, as WEAKEST_FIT and STRONGEST_FIT
+ * (the benchmark config) do on every step: the value range depends on the process, so its nodes are sorted again
+ * for every process. FIRST_FIT_DECREASING does not sort the nodes.</li>
+ * </ul>
+ * Every invocation sorts a freshly shuffled copy.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.includes=SelectionSorterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SelectionSorterBenchmark {
+
+    private static final Comparator<ClusterProcess> PROCESS_DIFFICULTY_COMPARATOR = (o1, o2) -> new CompareToBuilder()
+            .append(o1.getDifficultyIndex(), o2.getDifficultyIndex())
+            .append(o1.getId(), o2.getId())
+            .build();
+    private static final Comparator<ClusterNode> CLUSTER_NODE_STRENGTH_COMPARATOR = (o1, o2) -> new CompareToBuilder()
+            .append(o1.getDifficultyIndex(), o2.getDifficultyIndex())
+            .append(o1.getId(), o2.getId())
+            .build();
+
+    // The generator creates a cluster node per 4 processes, in 9 pairs of AZ and node type
+    @Param({"100000", "1000000"})
+    public int processCount;
+
+    private ClusterBalance clusterBalance;
+    private List<ClusterProcess> shuffledProcesses;
+    private List<ClusterNode> shuffledClusterNodes;
+
+    private SelectionSorter<ClusterBalance, ClusterProcess> processComparatorSorter;
+    private WeightFactorySelectionSorter<ClusterBalance, ClusterProcess> processWeightFactorySorter;
+    private SelectionSorter<ClusterBalance, ClusterNode> clusterNodeComparatorSorter;
+    private WeightFactorySelectionSorter<ClusterBalance, ClusterNode> clusterNodeWeightFactorySorter;
+    private ProcessDifficultySelectionSorter processWeightArraySorter;
+
+    private List<ClusterProcess> processes;
+    private List<ClusterNode> clusterNodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clusterBalance = new ClusterBalanceGenerator(37L).createClusterBalance(processCount);
+        Random random = new Random(37L);
+        shuffledProcesses = new ArrayList<>(clusterBalance.getClusterProcesses());
+        Collections.shuffle(shuffledProcesses, random);
+        shuffledClusterNodes = new ArrayList<>(clusterBalance.getClusterProcesses().get(0).getCompatibleClusterNodes());
+        Collections.shuffle(shuffledClusterNodes, random);
+
+        processComparatorSorter = new ComparatorSelectionSorter<>(PROCESS_DIFFICULTY_COMPARATOR, SelectionSorterOrder.DESCENDING);
+        processWeightFactorySorter = new WeightFactorySelectionSorter<>(new ProcessDifficultyWeightFactory(), SelectionSorterOrder.DESCENDING);
+        clusterNodeComparatorSorter = new ComparatorSelectionSorter<>(CLUSTER_NODE_STRENGTH_COMPARATOR, SelectionSorterOrder.ASCENDING);
+        clusterNodeWeightFactorySorter = new WeightFactorySelectionSorter<>(new ClusterNodeStrengthWeightFactory(), SelectionSorterOrder.ASCENDING);
+        processWeightArraySorter = new ProcessDifficultySelectionSorter();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyShuffled() {
+        // Invocations take far longer than copying a list, so the copy hardly distorts the time
+        processes = new ArrayList<>(shuffledProcesses);
+        clusterNodes = new ArrayList<>(shuffledClusterNodes);
+    }
+
+    @Benchmark
+    public List<ClusterProcess> processComparatorSort() {
+        // The comparator sorter does not use the score director
+        processComparatorSorter.sort(null, processes);
+        return processes;
+    }
+
+    @Benchmark
+    public List<ClusterProcess> processWeightFactorySort() {
+        processWeightFactorySorter.sort(clusterBalance, processes);
+        return processes;
+    }
+
+    @Benchmark
+    public List<ClusterProcess> processWeightArraySort() {
+        processWeightArraySorter.sort(clusterBalance, processes);
+        return processes;
+    }
+
+    @Benchmark
+    public List<ClusterNode> clusterNodeComparatorSort() {
+        clusterNodeComparatorSorter.sort(null, clusterNodes);
+        return clusterNodes;
+    }
+
+    @Benchmark
+    public List<ClusterNode> clusterNodeWeightFactorySort() {
+        clusterNodeWeightFactorySorter.sort(clusterBalance, clusterNodes);
+        return clusterNodes;
+    }
+}
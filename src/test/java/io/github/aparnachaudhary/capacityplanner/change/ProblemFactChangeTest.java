@@ -0,0 +1,170 @@
+package io.github.aparnachaudhary.capacityplanner.change;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+import io.github.aparnachaudhary.capacityplanner.solver.CloudCapacityScoreCalculator;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class ProblemFactChangeTest {
+
+    private ExecutorService executorService;
+    private Solver<ClusterBalance> solver;
+    private BlockingQueue<ClusterBalance> bestSolutionQueue;
+    private ClusterBalance firstBestSolution;
+
+    @Before
+    public void startSolving() throws InterruptedException {
+
+        ClusterBalance problem = SolverTestSupport.createProblem();
+
+        SolverFactory<ClusterBalance> solverFactory = SolverTestSupport.solverFactory();
+        solverFactory.getSolverConfig().setDaemon(true);
+        solver = solverFactory.buildSolver();
+        bestSolutionQueue = new LinkedBlockingQueue<>();
+        solver.addEventListener(event -> {
+            if (event.isEveryProblemFactChangeProcessed()) {
+                bestSolutionQueue.add(event.getNewBestSolution());
+            }
+        });
+
+        executorService = Executors.newSingleThreadExecutor();
+        executorService.submit(() -> solver.solve(problem));
+        firstBestSolution = bestSolutionQueue.poll(10, TimeUnit.SECONDS);
+        assertNotNull(firstBestSolution);
+    }
+
+    @After
+    public void terminate() {
+        solver.terminateEarly();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void addAndRemoveProcess() throws InterruptedException {
+
+        val process = ClusterProcess.builder()
+                .id(1000L)
+                .name("deployed")
+                .resource(Resource.CPU, 1)
+                .resource(Resource.MEMORY, 1)
+                .resource(Resource.DISK, 1)
+                .availabilityZone(AvailabilityZone.builder().id(1L).build())
+                .clusterNodeType(ClusterNodeType.builder().id(2L).build())
+                .build();
+        ClusterBalance solution = applyChange(new AddClusterProcessChange(process),
+                bestSolution -> bestSolution.getClusterProcesses().size() == 201);
+        ClusterProcess addedProcess = solution.getClusterProcesses().get(solution.getClusterProcesses().size() - 1);
+        assertEquals("Zone2", addedProcess.getAvailabilityZone().getName());
+        assertEquals(solution.getClusterNodes().stream()
+                        .filter(clusterNode -> clusterNode.getAvailabilityZone().getId() == 1L && clusterNode.getClusterNodeType().getId() == 2L)
+                        .count(),
+                addedProcess.getCompatibleClusterNodes().size());
+
+        solution = applyChange(new RemoveClusterProcessChange(process),
+                bestSolution -> bestSolution.getClusterProcesses().size() == 200);
+        assertTrue(solution.getClusterProcesses().stream().noneMatch(candidate -> candidate.getId() == 1000L));
+    }
+
+    @Test
+    public void addAndRemoveClusterNode() throws InterruptedException {
+
+        val clusterNode = ClusterNode.builder()
+                .id(1000L)
+                .name("added")
+                .resource(Resource.CPU, 64)
+                .resource(Resource.MEMORY, 1024)
+                .resource(Resource.DISK, 64)
+                .cost(1)
+                .availabilityZone(AvailabilityZone.builder().id(0L).build())
+                .clusterNodeType(ClusterNodeType.builder().id(0L).build())
+                .build();
+        applyChange(new AddClusterNodeChange(clusterNode),
+                bestSolution -> bestSolution.getClusterNodes().size() == 51);
+        ClusterBalance solution = applyChange(new RemoveClusterNodeChange(clusterNode),
+                bestSolution -> bestSolution.getClusterNodes().size() == 50);
+        assertTrue(solution.getClusterProcesses().stream()
+                .noneMatch(process -> process.getClusterNode() != null && process.getClusterNode().getId() == 1000L));
+    }
+
+    @Test
+    public void removeClusterNodeKeepsEarlierBestSolution() throws InterruptedException {
+
+        // From the middle of the list, so the nodes after it would move up if they were renumbered
+        ClusterNode clusterNode = firstBestSolution.getClusterNodes().get(10);
+        applyChange(new RemoveClusterNodeChange(clusterNode),
+                bestSolution -> bestSolution.getClusterNodes().size() == 49);
+
+        // The earlier best solution shares its cluster nodes, AZs and node types with the working solution
+        assertEquals(firstBestSolution.getClusterNodes().size(),
+                firstBestSolution.getClusterNodes().stream().mapToInt(ClusterNode::getIndex).distinct().count());
+        assertEquals(firstBestSolution.createResourceCapacities(), firstBestSolution.getResourceCapacities());
+        assertEquals(firstBestSolution.getScore(), new CloudCapacityScoreCalculator().calculateScore(firstBestSolution));
+    }
+
+    @Test
+    public void updateConstraintConfiguration() throws InterruptedException {
+
+        val constraintConfiguration = new ClusterBalanceConstraintConfiguration();
+        constraintConfiguration.setClusterNodeCost(HardMediumSoftLongScore.ZERO);
+        ClusterBalance solution = applyChange(new ConstraintConfigurationChange(constraintConfiguration),
+                bestSolution -> bestSolution.getConstraintConfiguration().getClusterNodeCost().equals(HardMediumSoftLongScore.ZERO));
+        assertEquals(0L, solution.getScore().getSoftScore());
+
+        assertEquals(HardMediumSoftLongScore.ONE_SOFT, firstBestSolution.getConstraintConfiguration().getClusterNodeCost());
+        assertEquals(firstBestSolution.getScore(), new CloudCapacityScoreCalculator().calculateScore(firstBestSolution));
+    }
+
+    @Test
+    public void pinProcess() throws InterruptedException {
+
+        ClusterProcess process = firstBestSolution.getClusterProcesses().get(0);
+        ClusterBalance solution = applyChange(new PinClusterProcessChange(process, true),
+                bestSolution -> bestSolution.getClusterProcesses().get(0).isPinned());
+        ClusterNode pinnedClusterNode = solution.getClusterProcesses().get(0).getClusterNode();
+
+        // Later best solutions never move it
+        val otherProcess = ClusterProcess.builder()
+                .id(1000L)
+                .name("deployed")
+                .resource(Resource.CPU, 1)
+                .availabilityZone(process.getAvailabilityZone())
+                .clusterNodeType(process.getClusterNodeType())
+                .build();
+        solution = applyChange(new AddClusterProcessChange(otherProcess),
+                bestSolution -> bestSolution.getClusterProcesses().size() == 201);
+        for (ClusterBalance bestSolution = solution; bestSolution != null; bestSolution = bestSolutionQueue.poll(500, TimeUnit.MILLISECONDS)) {
+            assertSame(pinnedClusterNode, bestSolution.getClusterProcesses().get(0).getClusterNode());
+        }
+
+        solution = applyChange(new PinClusterProcessChange(process, false),
+                bestSolution -> !bestSolution.getClusterProcesses().get(0).isPinned());
+        assertFalse(solution.getClusterProcesses().get(0).isPinned());
+    }
+
+    private ClusterBalance applyChange(ProblemFactChange<ClusterBalance> problemFactChange,
+                                       Predicate<ClusterBalance> changeApplied) throws InterruptedException {
+        solver.addProblemFactChange(problemFactChange);
+        // Skip best solutions that were found just before the change was picked up.
+        // Warm started: the running solver publishes the changed solution, the test fails if it never does
+        ClusterBalance solution;
+        do {
+            solution = bestSolutionQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull("The change was not applied.", solution);
+        } while (!changeApplied.test(solution));
+        // The incremental score calculator was reset correctly
+        assertEquals(new CloudCapacityScoreCalculator().calculateScore(solution), solution.getScore());
+        return solution;
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.aparnachaudhary.capacityplanner.domain;
+
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ClusterBalanceTest {
+
+    @Test
+    public void initializeCompatibleClusterNodes() {
+
+        ClusterBalance clusterBalance = new ClusterBalanceGenerator(37L).createClusterBalance(200);
+        // An AZ without nodes of the node type
+        ClusterProcess homelessProcess = ClusterProcess.builder().id(1000L).name("homeless")
+                .availabilityZone(AvailabilityZone.builder().id(1000L).name("empty").build())
+                .clusterNodeType(clusterBalance.getNodeTypes().get(0))
+                .build();
+        clusterBalance.getClusterProcesses().add(homelessProcess);
+        clusterBalance.initializeCompatibleClusterNodes();
+
+        Map<Pair<AvailabilityZone, ClusterNodeType>, List<ClusterNode>> sharedListMap = new HashMap<>();
+        for (ClusterProcess process : clusterBalance.getClusterProcesses()) {
+            List<ClusterNode> expectedClusterNodes = clusterBalance.getClusterNodes().stream()
+                    .filter(clusterNode -> clusterNode.getAvailabilityZone().equals(process.getAvailabilityZone())
+                            && clusterNode.getClusterNodeType().equals(process.getClusterNodeType()))
+                    .collect(Collectors.toList());
+            assertEquals(expectedClusterNodes, process.getCompatibleClusterNodes());
+            // One list per (AZ, node type), not one per process
+            List<ClusterNode> sharedList = sharedListMap.computeIfAbsent(
+                    Pair.of(process.getAvailabilityZone(), process.getClusterNodeType()), key -> process.getCompatibleClusterNodes());
+            assertSame(sharedList, process.getCompatibleClusterNodes());
+        }
+        assertEquals(10, sharedListMap.size());
+        assertTrue(homelessProcess.getCompatibleClusterNodes().isEmpty());
+    }
+}
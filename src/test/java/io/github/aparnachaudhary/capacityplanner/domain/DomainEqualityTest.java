@@ -0,0 +1,51 @@
+package io.github.aparnachaudhary.capacityplanner.domain;
+
+import lombok.val;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DomainEqualityTest {
+
+    private final AvailabilityZone availabilityZone = AvailabilityZone.builder().id(0L).name("AZ1").build();
+    private final ClusterNodeType nodeType = ClusterNodeType.builder().id(0L).name("BROKER").build();
+
+    @Test
+    public void processHashCodeIgnoresAssignment() {
+
+        val clusterNode = ClusterNode.builder().id(0L).name("node0")
+                .availabilityZone(availabilityZone).clusterNodeType(nodeType).build();
+        val process = ClusterProcess.builder().id(7L).name("process7")
+                .availabilityZone(availabilityZone).clusterNodeType(nodeType).build();
+        int unassignedHashCode = process.hashCode();
+
+        process.setClusterNode(clusterNode);
+        process.setPinned(true);
+
+        assertEquals(unassignedHashCode, process.hashCode());
+        assertEquals(process, process.toBuilder().clusterNode(null).pinned(false).build());
+    }
+
+    @Test
+    public void equalById() {
+
+        val renamedAvailabilityZone = AvailabilityZone.builder().id(0L).name("renamed").build();
+        val otherAvailabilityZone = AvailabilityZone.builder().id(1L).name("AZ1").build();
+
+        assertEquals(availabilityZone, renamedAvailabilityZone);
+        assertEquals(availabilityZone.hashCode(), renamedAvailabilityZone.hashCode());
+        assertNotEquals(availabilityZone, otherAvailabilityZone);
+        assertNotEquals(nodeType, ClusterNodeType.builder().id(1L).name("BROKER").build());
+        assertNotEquals(ClusterNode.builder().id(0L).build(), ClusterNode.builder().id(1L).build());
+    }
+
+    @Test
+    public void withoutIdOnlyEqualToItself() {
+
+        val process = ClusterProcess.builder().name("new").build();
+        val sameFields = ClusterProcess.builder().name("new").build();
+
+        assertEquals(process, process);
+        assertNotEquals(process, sameFields);
+    }
+}
@@ -3,35 +3,35 @@ package io.github.aparnachaudhary.capacityplanner.domain;
 import lombok.val;
 import org.junit.Test;
 import org.optaplanner.core.api.solver.SolverFactory;
-import org.optaplanner.test.impl.score.buildin.hardmediumsoft.HardMediumSoftScoreVerifier;
+import org.optaplanner.test.impl.score.buildin.hardmediumsoftlong.HardMediumSoftLongScoreVerifier;
 
 import java.util.Arrays;
 import java.util.Collections;
 
 public class ScoreConstraintTest {
 
-    private HardMediumSoftScoreVerifier<ClusterBalance> scoreVerifier = new HardMediumSoftScoreVerifier<>(SolverFactory.createFromXmlResource("solver/test-constraint-solver.xml"));
+    private HardMediumSoftLongScoreVerifier<ClusterBalance> scoreVerifier = new HardMediumSoftLongScoreVerifier<>(SolverFactory.createFromXmlResource("solver/test-constraint-solver.xml"));
 
     @Test
     public void testCpuCapacity() {
 
         val c1 = ClusterNode.builder()
                 .id(1L)
-                .cpu(10)
-                .memory(100)
-                .disk(1000)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 1000)
                 .cost(50)
                 .build();
 
         val p1 = ClusterProcess.builder()
                 .id(1L)
-                .cpu(1)
+                .resource(Resource.CPU, 1)
                 .clusterNode(c1)
                 .build();
 
         val p2 = ClusterProcess.builder()
                 .id(2L)
-                .cpu(10)
+                .resource(Resource.CPU, 10)
                 .clusterNode(c1)
                 .build();
 
@@ -41,10 +41,10 @@ public class ScoreConstraintTest {
                 .clusterProcesses(Collections.singletonList(p1))
                 .build();
 
-        scoreVerifier.assertHardWeight("CPU capacity", 0, s1);
+        scoreVerifier.assertHardWeight("ClusterNode capacity", 0, s1);
 
         s1.setClusterProcesses(Arrays.asList(p1, p2));
-        scoreVerifier.assertHardWeight("CPU capacity", -1, s1);
+        scoreVerifier.assertHardWeight("ClusterNode capacity", -1, s1);
     }
 
     @Test
@@ -52,21 +52,21 @@ public class ScoreConstraintTest {
 
         val c1 = ClusterNode.builder()
                 .id(1L)
-                .cpu(10)
-                .memory(100)
-                .disk(1000)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 1000)
                 .cost(50)
                 .build();
 
         val p1 = ClusterProcess.builder()
                 .id(1L)
-                .memory(100)
+                .resource(Resource.MEMORY, 100)
                 .clusterNode(c1)
                 .build();
 
         val p2 = ClusterProcess.builder()
                 .id(2L)
-                .memory(10)
+                .resource(Resource.MEMORY, 10)
                 .clusterNode(c1)
                 .build();
 
@@ -78,10 +78,10 @@ public class ScoreConstraintTest {
                 .nodeTypes(Collections.emptyList())
                 .build();
 
-        scoreVerifier.assertHardWeight("Memory capacity", 0, s1);
+        scoreVerifier.assertHardWeight("ClusterNode capacity", 0, s1);
 
         s1.setClusterProcesses(Arrays.asList(p1, p2));
-        scoreVerifier.assertHardWeight("Memory capacity", -10, s1);
+        scoreVerifier.assertHardWeight("ClusterNode capacity", -10, s1);
     }
 
     @Test
@@ -89,21 +89,21 @@ public class ScoreConstraintTest {
 
         val c1 = ClusterNode.builder()
                 .id(1L)
-                .cpu(10)
-                .memory(100)
-                .disk(1000)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 1000)
                 .cost(50)
                 .build();
 
         val p1 = ClusterProcess.builder()
                 .id(1L)
-                .disk(500)
+                .resource(Resource.DISK, 500)
                 .clusterNode(c1)
                 .build();
 
         val p2 = ClusterProcess.builder()
                 .id(2L)
-                .disk(1000)
+                .resource(Resource.DISK, 1000)
                 .clusterNode(c1)
                 .build();
 
@@ -113,10 +113,46 @@ public class ScoreConstraintTest {
                 .clusterProcesses(Collections.singletonList(p1))
                 .build();
 
-        scoreVerifier.assertHardWeight("Disk capacity", 0, s1);
+        scoreVerifier.assertHardWeight("ClusterNode capacity", 0, s1);
 
         s1.setClusterProcesses(Arrays.asList(p1, p2));
-        scoreVerifier.assertHardWeight("Disk capacity", -500, s1);
+        scoreVerifier.assertHardWeight("ClusterNode capacity", -500, s1);
+    }
+
+    @Test
+    public void testGpuCapacity() {
+
+        val c1 = ClusterNode.builder()
+                .id(1L)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.GPU, 2)
+                .cost(50)
+                .build();
+
+        val p1 = ClusterProcess.builder()
+                .id(1L)
+                .resource(Resource.CPU, 1)
+                .resource(Resource.GPU, 2)
+                .clusterNode(c1)
+                .build();
+
+        val p2 = ClusterProcess.builder()
+                .id(2L)
+                .resource(Resource.CPU, 1)
+                .resource(Resource.GPU, 1)
+                .clusterNode(c1)
+                .build();
+
+        val s1 = ClusterBalance.builder()
+                .id(1L)
+                .clusterNodes(Collections.singletonList(c1))
+                .clusterProcesses(Collections.singletonList(p1))
+                .build();
+
+        scoreVerifier.assertHardWeight("ClusterNode capacity", 0, s1);
+
+        s1.setClusterProcesses(Arrays.asList(p1, p2));
+        scoreVerifier.assertHardWeight("ClusterNode capacity", -1, s1);
     }
 
     @Test
@@ -124,33 +160,33 @@ public class ScoreConstraintTest {
 
         val c1 = ClusterNode.builder()
                 .id(1L)
-                .cpu(10)
-                .memory(100)
-                .disk(1000)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 1000)
                 .cost(50)
                 .build();
 
         val c2 = ClusterNode.builder()
                 .id(2L)
-                .cpu(10)
-                .memory(100)
-                .disk(1000)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 1000)
                 .cost(500)
                 .build();
 
         val p1 = ClusterProcess.builder()
                 .id(1L)
-                .cpu(1)
-                .memory(100)
-                .disk(500)
+                .resource(Resource.CPU, 1)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 500)
                 .clusterNode(c1)
                 .build();
 
         val p2 = ClusterProcess.builder()
                 .id(2L)
-                .cpu(10)
-                .memory(10)
-                .disk(1000)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.MEMORY, 10)
+                .resource(Resource.DISK, 1000)
                 .clusterNode(c2)
                 .build();
 
@@ -171,17 +207,17 @@ public class ScoreConstraintTest {
 
         val c1 = ClusterNode.builder()
                 .id(1L)
-                .cpu(10)
-                .memory(100)
-                .disk(1000)
+                .resource(Resource.CPU, 10)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 1000)
                 .cost(50)
                 .build();
 
         val p1 = ClusterProcess.builder()
                 .id(1L)
-                .cpu(1)
-                .memory(100)
-                .disk(500)
+                .resource(Resource.CPU, 1)
+                .resource(Resource.MEMORY, 100)
+                .resource(Resource.DISK, 500)
                 .build();
 
         val s1 = ClusterBalance.builder()
@@ -0,0 +1,55 @@
+package io.github.aparnachaudhary.capacityplanner.explanation;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import io.github.aparnachaudhary.capacityplanner.metrics.ConstraintMatchCount;
+import lombok.val;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScoreExplainerTest {
+
+    @Test
+    public void explainOncePerSolution() {
+
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource("solver/capacity-planning-solver-config.xml");
+        val scoreExplainer = new ScoreExplainer(solverFactory.buildSolver().getScoreDirectorFactory());
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance clusterBalance = generator.createClusterBalance(18, 200);
+        generator.assignRandomly(clusterBalance);
+        clusterBalance.getClusterProcesses().get(0).setClusterNode(null);
+
+        val explanation = scoreExplainer.explain(clusterBalance);
+        assertSame(explanation, scoreExplainer.explain(clusterBalance));
+
+        HardMediumSoftLongScore constraintMatchScore = HardMediumSoftLongScore.ZERO;
+        for (ConstraintMatchCount constraintMatchCount : explanation.getConstraintMatchTotals()) {
+            constraintMatchScore = constraintMatchScore.add(HardMediumSoftLongScore.parseScore(constraintMatchCount.getScore()));
+        }
+        assertEquals(explanation.getScore(), constraintMatchScore.toString());
+        assertTrue(explanation.getProcessIndictments().stream()
+                .anyMatch(indictment -> indictment.getId().equals(0L) && indictment.getConstraintNames().contains("Not Assigned")));
+
+        // Worst first
+        List<IndictmentSummary> clusterNodeIndictments = explanation.getClusterNodeIndictments();
+        assertFalse(clusterNodeIndictments.isEmpty());
+        for (int i = 1; i < clusterNodeIndictments.size(); i++) {
+            assertTrue(HardMediumSoftLongScore.parseScore(clusterNodeIndictments.get(i - 1).getScore())
+                    .compareTo(HardMediumSoftLongScore.parseScore(clusterNodeIndictments.get(i).getScore())) <= 0);
+        }
+
+        val limitedExplanation = explanation.limit(2);
+        assertEquals(clusterNodeIndictments.subList(0, 2), limitedExplanation.getClusterNodeIndictments());
+        assertEquals(explanation.getConstraintMatchTotals(), limitedExplanation.getConstraintMatchTotals());
+
+        // Another best solution is explained again
+        ClusterBalance otherClusterBalance = generator.createClusterBalance(18, 200);
+        assertNotSame(explanation, scoreExplainer.explain(otherClusterBalance));
+    }
+}
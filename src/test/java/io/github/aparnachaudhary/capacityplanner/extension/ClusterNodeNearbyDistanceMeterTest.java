@@ -0,0 +1,46 @@
+package io.github.aparnachaudhary.capacityplanner.extension;
+
+import io.github.aparnachaudhary.capacityplanner.domain.AvailabilityZone;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNodeType;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.domain.Resource;
+import lombok.val;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClusterNodeNearbyDistanceMeterTest {
+
+    private final AvailabilityZone availabilityZone = AvailabilityZone.builder().id(0L).name("AZ1").build();
+    private final ClusterNodeType nodeType = ClusterNodeType.builder().id(0L).name("BROKER").build();
+
+    @Test
+    public void bestFittingNodeFirst() {
+
+        val meter = new ClusterNodeNearbyDistanceMeter();
+        ClusterProcess process = ClusterProcess.builder().id(0L)
+                .resource(Resource.CPU, 2).resource(Resource.MEMORY, 16).resource(Resource.DISK, 2)
+                .availabilityZone(availabilityZone).clusterNodeType(nodeType)
+                .build();
+
+        double sameShape = meter.getNearbyDistance(process, createClusterNode(1L, availabilityZone, 4, 32, 4));
+        double otherShape = meter.getNearbyDistance(process, createClusterNode(2L, availabilityZone, 16, 32, 16));
+        double tooSmall = meter.getNearbyDistance(process, createClusterNode(3L, availabilityZone, 1, 8, 1));
+        double otherAvailabilityZone = meter.getNearbyDistance(process, createClusterNode(4L,
+                AvailabilityZone.builder().id(1L).name("AZ2").build(), 4, 32, 4));
+
+        assertEquals(Math.sqrt(0.75), sameShape, 1e-9);
+        assertTrue(sameShape < otherShape);
+        assertTrue(otherShape < tooSmall);
+        assertTrue(tooSmall < otherAvailabilityZone);
+        assertEquals(Double.MAX_VALUE, meter.getNearbyDistance(process, null), 0.0);
+    }
+
+    private ClusterNode createClusterNode(long id, AvailabilityZone availabilityZone, long cpu, long memory, long disk) {
+        return ClusterNode.builder().id(id)
+                .resource(Resource.CPU, cpu).resource(Resource.MEMORY, memory).resource(Resource.DISK, disk)
+                .availabilityZone(availabilityZone).clusterNodeType(nodeType)
+                .build();
+    }
+}
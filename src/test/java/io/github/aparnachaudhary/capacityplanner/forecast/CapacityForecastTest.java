@@ -0,0 +1,82 @@
+package io.github.aparnachaudhary.capacityplanner.forecast;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.*;
+import io.github.aparnachaudhary.capacityplanner.service.SolverJobStatus;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CapacityForecastTest {
+
+    @Test
+    public void forecastCheapestClusterNodes() {
+
+        ClusterBalance problem = SolverTestSupport.createProblem();
+        problem.setClusterNodes(new ArrayList<>());
+        List<ClusterNodeTemplate> templates = new ArrayList<>();
+        for (ClusterNodeType nodeType : problem.getNodeTypes()) {
+            templates.add(buildTemplate(nodeType, "small", 4, 7500));
+            templates.add(buildTemplate(nodeType, "large", 16, 14000));
+        }
+
+        List<ClusterNode> candidates = new CandidateClusterNodeGenerator().generate(problem, templates);
+        // Per AZ and node type with processes, enough of every template to pack them on that template alone
+        for (ClusterProcess process : problem.getClusterProcesses()) {
+            for (ClusterNodeTemplate template : templates) {
+                if (template.getClusterNodeType() == process.getClusterNodeType()) {
+                    assertTrue(candidates.stream().anyMatch(candidate -> candidate.getTemplate() == template
+                            && candidate.getAvailabilityZone() == process.getAvailabilityZone()));
+                }
+            }
+        }
+        problem.setClusterNodes(candidates);
+        problem.initializeDerivedData();
+
+        ClusterBalance solution = SolverTestSupport.quickSolverFactory().buildSolver().solve(problem);
+
+        val forecast = CapacityForecast.of(0L, SolverJobStatus.SOLVED, solution);
+        assertTrue(forecast.isFeasible());
+        assertEquals(0, forecast.getUnassignedProcessCount());
+        // Only candidates, so the node cost is the purchase cost
+        assertEquals(-solution.getScore().getSoftScore(), forecast.getPurchaseCost());
+        assertEquals(forecast.getPurchaseCost(), forecast.getClusterNodeCounts().stream().mapToLong(ClusterNodeCount::getCost).sum());
+        assertEquals(solution.getClusterProcesses().stream().map(ClusterProcess::getClusterNode).distinct().count(),
+                forecast.getClusterNodeCounts().stream().mapToInt(ClusterNodeCount::getCount).sum());
+        assertTrue(forecast.getClusterNodeCounts().stream().allMatch(clusterNodeCount -> clusterNodeCount.getTemplate() != null));
+    }
+
+    @Test
+    public void countFirstFitDecreasingNodes() {
+
+        val nodeType = ClusterNodeType.builder().id(0L).name("COMPUTE").build();
+        val template = buildTemplate(nodeType, "small", 4, 7500);
+        List<ClusterProcess> processes = new ArrayList<>();
+        // 3 + 1 fit on one node, 2 + 2 on another, 5 never fits
+        for (long cpu : new long[]{1, 2, 3, 2, 5}) {
+            processes.add(ClusterProcess.builder()
+                    .id((long) processes.size())
+                    .resource(Resource.CPU, cpu)
+                    .build());
+        }
+        assertEquals(2, CandidateClusterNodeGenerator.countFirstFitDecreasingNodes(processes, template));
+    }
+
+    private static ClusterNodeTemplate buildTemplate(ClusterNodeType nodeType, String name, long cpu, long cost) {
+        return ClusterNodeTemplate.builder()
+                .name(nodeType.getName().toLowerCase() + "-" + name)
+                .clusterNodeType(nodeType)
+                .resource(Resource.CPU, cpu)
+                .resource(Resource.MEMORY, cpu * 16L)
+                .resource(Resource.DISK, cpu)
+                .resource(Resource.NETWORK_BANDWIDTH, cpu * 1000L)
+                .resource(Resource.IOPS, cpu * 500L)
+                .resource(Resource.EPHEMERAL_STORAGE, cpu * 10L)
+                .cost(cost)
+                .build();
+    }
+}
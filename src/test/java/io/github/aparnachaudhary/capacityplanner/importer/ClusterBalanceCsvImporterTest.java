@@ -0,0 +1,79 @@
+package io.github.aparnachaudhary.capacityplanner.importer;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.repository.ClusterNodeRepository;
+import io.github.aparnachaudhary.capacityplanner.repository.ClusterProcessRepository;
+import lombok.val;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(ClusterBalanceCsvImporter.class)
+@TestPropertySource(properties = "capacityplanner.import.batch-size=100")
+// Let the importer commit its own chunk transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ClusterBalanceCsvImporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    private ClusterBalanceCsvImporter csvImporter;
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+    @Autowired
+    private ClusterProcessRepository clusterProcessRepository;
+
+    @Test
+    public void importInChunks() throws IOException {
+
+        File clusterNodesFile = temporaryFolder.newFile("clusterNodes.csv");
+        try (PrintWriter writer = new PrintWriter(clusterNodesFile)) {
+            writer.println("name,cpu,memory,disk,gpu,cost,clusterNodeType,availabilityZone");
+            for (int i = 0; i < 250; i++) {
+                writer.println("node-" + i + ",8,128,8," + (i % 2) + ",7500," + (i % 3) + "," + (i / 3 % 3));
+            }
+        }
+        File processesFile = temporaryFolder.newFile("processes.csv");
+        try (PrintWriter writer = new PrintWriter(processesFile)) {
+            writer.println("name,cpu,memory,disk,clusterNodeType,availabilityZone");
+            for (int i = 0; i < 2550; i++) {
+                writer.println("\"process-" + i + "\",1,2,1," + (i % 3) + "," + (i / 3 % 3));
+            }
+        }
+
+        val clusterBalance = csvImporter.importClusterBalance(new FileSystemResource(clusterNodesFile), new FileSystemResource(processesFile));
+
+        assertEquals(250, clusterBalance.getClusterNodes().size());
+        assertEquals(2550, clusterBalance.getClusterProcesses().size());
+        assertEquals(250L, clusterNodeRepository.count());
+        assertEquals(2550L, clusterProcessRepository.count());
+        assertEquals("process-2549", clusterProcessRepository.findById(2549L).get().getName());
+        // Resources without a column are zero
+        assertArrayEquals(new long[]{8L, 128L, 8L, 0L, 1L, 0L, 0L}, clusterNodeRepository.findById(1L).get().getCapacity());
+        assertArrayEquals(new long[]{1L, 2L, 1L, 0L, 0L, 0L, 0L}, clusterBalance.getClusterProcesses().get(0).getUsage());
+        // Not read back: the AZ and node type of every row is the instance of the ClusterBalance lists
+        clusterBalance.getClusterProcesses().forEach(process -> {
+            assertSame(clusterBalance.getAvailabilityZones().get(process.getAvailabilityZone().getId().intValue()), process.getAvailabilityZone());
+            assertSame(clusterBalance.getNodeTypes().get(process.getClusterNodeType().getId().intValue()), process.getClusterNodeType());
+            assertEquals(250 / 9, process.getCompatibleClusterNodes().size(), 1);
+        });
+    }
+}
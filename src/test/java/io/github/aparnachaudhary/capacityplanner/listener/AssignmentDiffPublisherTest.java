@@ -0,0 +1,116 @@
+package io.github.aparnachaudhary.capacityplanner.listener;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AssignmentDiffPublisherTest {
+
+    private ScheduledExecutorService publisherExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void shutdown() {
+        publisherExecutor.shutdownNow();
+    }
+
+    @Test
+    public void diffsAddUpToBestSolution() throws InterruptedException {
+
+        SolverFactory<ClusterBalance> solverFactory = SolverTestSupport.quickSolverFactory();
+        Solver<ClusterBalance> solver = solverFactory.buildSolver();
+
+        val publisher = new AssignmentDiffPublisher(publisherExecutor, 200L);
+        solver.addEventListener(publisher);
+        val earlySubscriber = new CollectingSubscriber();
+        publisher.subscribe(earlySubscriber);
+
+        val solution = solver.solve(SolverTestSupport.createProblem());
+        publisher.close();
+        val lateSubscriber = new CollectingSubscriber();
+        publisher.subscribe(lateSubscriber);
+        assertTrue(earlySubscriber.closed.await(5, TimeUnit.SECONDS));
+        assertTrue(lateSubscriber.closed.await(5, TimeUnit.SECONDS));
+
+        Map<Long, Long> expectedAssignments = new HashMap<>();
+        solution.getClusterProcesses().forEach(process -> expectedAssignments.put(process.getId(),
+                process.getClusterNode() == null ? null : process.getClusterNode().getId()));
+        assertEquals(expectedAssignments, earlySubscriber.applyDiffs());
+        assertEquals(solution.getScore().toString(), earlySubscriber.diffs.get(earlySubscriber.diffs.size() - 1).getScore());
+        // Coalesced: at most one diff per 200ms, plus the initial (empty) one
+        assertTrue(earlySubscriber.diffs.size() <= 2 + 2000 / 200 + 1);
+
+        // Subscribed after the last best solution: only the complete assignment
+        assertEquals(1, lateSubscriber.diffs.size());
+        assertEquals(expectedAssignments, lateSubscriber.applyDiffs());
+    }
+
+    @Test
+    public void throttleBestSolutionBursts() throws InterruptedException {
+
+        Solver<ClusterBalance> solver = SolverTestSupport.quickSolverFactory().buildSolver();
+        ClusterBalance solution = SolverTestSupport.createProblem();
+        val publisher = new AssignmentDiffPublisher(publisherExecutor, 100L);
+        val subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+
+        // A new best solution every millisecond, for a second
+        long endMillis = System.currentTimeMillis() + 1000L;
+        while (System.currentTimeMillis() < endMillis) {
+            publisher.bestSolutionChanged(new BestSolutionChangedEvent<>(solver, 0L, solution, solution.getScore()));
+            Thread.sleep(1L);
+        }
+        // close() flushes the pending solution without the throttle, so let the throttled publish go first
+        Thread.sleep(300L);
+        publisher.close();
+        assertTrue(subscriber.closed.await(5, TimeUnit.SECONDS));
+
+        // After the initial snapshot, never two diffs within the throttle (the send time jitters a few milliseconds)
+        for (int i = 2; i < subscriber.sentMillis.size(); i++) {
+            assertTrue("Diff " + i, subscriber.sentMillis.get(i) - subscriber.sentMillis.get(i - 1) >= 90L);
+        }
+        assertTrue(subscriber.diffs.size() <= 2 + 1000 / 100 + 1);
+    }
+
+    private static class CollectingSubscriber implements AssignmentDiffSubscriber {
+
+        private final List<AssignmentDiff> diffs = new CopyOnWriteArrayList<>();
+        private final List<Long> sentMillis = new CopyOnWriteArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(AssignmentDiff assignmentDiff) {
+            diffs.add(assignmentDiff);
+            sentMillis.add(System.currentTimeMillis());
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        private Map<Long, Long> applyDiffs() {
+            Map<Long, Long> assignments = new HashMap<>();
+            diffs.forEach(diff -> {
+                assignments.putAll(diff.getAssignments());
+                diff.getRemovedProcessIds().forEach(assignments::remove);
+            });
+            return assignments;
+        }
+    }
+}
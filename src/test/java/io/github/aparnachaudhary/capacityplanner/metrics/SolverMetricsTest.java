@@ -0,0 +1,62 @@
+package io.github.aparnachaudhary.capacityplanner.metrics;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.explanation.ScoreExplainer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+
+import static org.junit.Assert.*;
+
+public class SolverMetricsTest {
+
+    @Test
+    public void instrumentSolver() throws InterruptedException {
+
+        SolverFactory<ClusterBalance> solverFactory = SolverTestSupport.quickSolverFactory();
+        Solver<ClusterBalance> solver = solverFactory.buildSolver();
+
+        val meterRegistry = new SimpleMeterRegistry();
+        val statistics = new SolverMetrics(meterRegistry).instrument(solver, "test",
+                new ScoreExplainer(solver.getScoreDirectorFactory()));
+        val solution = solver.solve(SolverTestSupport.createProblem());
+
+        // Construction heuristic steps (one per process) and local search steps
+        assertTrue(statistics.getStepCount() > 200L);
+        assertTrue(statistics.getEvaluatedMoveCount() >= statistics.getAcceptedMoveCount());
+        assertTrue(statistics.getAcceptedMoveCount() > 0L);
+        assertTrue(statistics.getScoreCalculationCount() > statistics.getEvaluatedMoveCount());
+        assertTrue(statistics.getScoreCalculationSpeed() > 0L);
+
+        val bestScoreTimeline = statistics.getBestScoreTimeline();
+        assertEquals(solution.getScore().toString(), bestScoreTimeline.get(bestScoreTimeline.size() - 1).getScore());
+        assertEquals(solution.getScore().isFeasible(), statistics.getTimeToFeasibleMillis() != null);
+
+        HardMediumSoftLongScore constraintMatchScore = HardMediumSoftLongScore.ZERO;
+        for (ConstraintMatchCount constraintMatchCount : statistics.getConstraintMatchCounts()) {
+            assertTrue(constraintMatchCount.getMatchCount() > 0);
+            constraintMatchScore = constraintMatchScore.add(HardMediumSoftLongScore.parseScore(constraintMatchCount.getScore()));
+        }
+        assertEquals(solution.getScore(), constraintMatchScore);
+
+        assertEquals(statistics.getStepCount(), meterRegistry.get("capacityplanner.solver.steps").tag("solver", "test").counter().count(), 0.0);
+        assertEquals(statistics.getScoreCalculationCount(),
+                meterRegistry.get("capacityplanner.solver.score.calculations").tag("solver", "test").counter().count(), 0.0);
+        assertEquals(solution.getScore().getSoftScore(),
+                meterRegistry.get("capacityplanner.solver.best.score").tag("solver", "test").tag("level", "soft").gauge().value(), 0.0);
+        assertEquals(1L, meterRegistry.get("capacityplanner.solver.solving").tag("solver", "test").timer().count());
+
+        // Counted after the run by the constraint match executor
+        val constraintMatchCount = statistics.getConstraintMatchCounts().get(0);
+        val constraintMatchSearch = meterRegistry.find("capacityplanner.solver.constraint.matches")
+                .tag("solver", "test").tag("constraint", constraintMatchCount.getConstraintName());
+        for (int i = 0; i < 100 && constraintMatchSearch.gauge() == null; i++) {
+            Thread.sleep(50L);
+        }
+        assertEquals(constraintMatchCount.getMatchCount(), constraintMatchSearch.gauge().value(), 0.0);
+    }
+}
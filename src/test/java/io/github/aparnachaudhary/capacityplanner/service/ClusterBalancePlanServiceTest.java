@@ -0,0 +1,90 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(ClusterBalancePlanService.class)
+// Every save commits, like in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ClusterBalancePlanServiceTest {
+
+    @Autowired
+    private ClusterBalancePlanService planService;
+
+    @Test
+    public void saveAndLoadLastPlan() {
+
+        assertFalse(planService.loadLastPlan().isPresent());
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance solution = generator.createClusterBalance(18, 200);
+        generator.assignRandomly(solution);
+        solution.setScore(HardMediumSoftLongScore.of(-1L, -2L, -3L));
+        val plan = planService.save(solution);
+        assertEquals("-1hard/-2medium/-3soft", plan.getScore());
+        assertEquals(200, plan.getProcessCount());
+        assertEquals(assignmentMap(solution), assignmentMap(planService.loadLastPlan().get()));
+
+        // Like a running solver: processes and a node added and removed, processes reassigned
+        List<ClusterNode> clusterNodes = new ArrayList<>(solution.getClusterNodes());
+        ClusterNode removedClusterNode = clusterNodes.remove(0);
+        ClusterNode addedClusterNode = ClusterNode.builder()
+                .id(1000L)
+                .name("added")
+                .capacity(removedClusterNode.getCapacity())
+                .availabilityZone(removedClusterNode.getAvailabilityZone())
+                .clusterNodeType(removedClusterNode.getClusterNodeType())
+                .build();
+        clusterNodes.add(addedClusterNode);
+        solution.setClusterNodes(clusterNodes);
+        List<ClusterProcess> processes = new ArrayList<>(solution.getClusterProcesses());
+        processes.remove(1);
+        processes.add(processes.get(0).toBuilder().id(1000L).clusterNode(addedClusterNode).build());
+        processes.get(2).setClusterNode(null);
+        processes.forEach(process -> {
+            if (process.getClusterNode() == removedClusterNode) {
+                process.setClusterNode(addedClusterNode);
+            }
+        });
+        solution.setClusterProcesses(processes);
+        val nextPlan = planService.save(solution);
+
+        assertEquals(nextPlan, planService.findLastPlan().get());
+        ClusterBalance lastPlan = planService.loadLastPlan().get();
+        assertEquals(assignmentMap(solution), assignmentMap(lastPlan));
+        assertEquals(solution.getClusterNodes().size(), lastPlan.getClusterNodes().size());
+        // Ready to solve
+        assertNotNull(lastPlan.getClusterProcesses().get(0).getCompatibleClusterNodes());
+        assertSame(lastPlan.getAvailabilityZones().get(0), lastPlan.getClusterNodes().stream()
+                .filter(clusterNode -> clusterNode.getAvailabilityZone().getId().equals(lastPlan.getAvailabilityZones().get(0).getId()))
+                .findFirst().get().getAvailabilityZone());
+    }
+
+    private static Map<Long, Long> assignmentMap(ClusterBalance clusterBalance) {
+        Map<Long, Long> assignmentMap = new HashMap<>();
+        clusterBalance.getClusterProcesses().forEach(process -> assignmentMap.put(process.getId(),
+                process.getClusterNode() == null ? null : process.getClusterNode().getId()));
+        return assignmentMap;
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.aparnachaudhary.capacityplanner.service;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.metrics.SolverMetrics;
+import io.github.aparnachaudhary.capacityplanner.solver.CloudCapacityScoreCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.impl.score.director.easy.EasyScoreCalculator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ClusterBalanceSolverManagerTest {
+
+    private ScheduledExecutorService publisherExecutor;
+    private ClusterBalanceSolverManager solverManager;
+
+    @Before
+    public void createSolverManager() {
+        SolverFactory<ClusterBalance> solverFactory = SolverTestSupport.quickSolverFactory();
+        // One job solves, one job waits, two finished jobs are kept
+        publisherExecutor = Executors.newSingleThreadScheduledExecutor();
+        solverManager = new ClusterBalanceSolverManager(solverFactory, 1, 1, 2, publisherExecutor, 100L,
+                new SolverMetrics(new SimpleMeterRegistry()));
+    }
+
+    @After
+    public void terminate() {
+        solverManager.terminate();
+        publisherExecutor.shutdownNow();
+    }
+
+    @Test
+    public void solveQueueAndCancel() throws InterruptedException {
+
+        val solvingJob = solverManager.submit(SolverTestSupport.createProblem());
+        val scheduledJob = solverManager.submit(SolverTestSupport.createProblem());
+        assertEquals(SolverJobStatus.SCHEDULED, scheduledJob.getStatus());
+        try {
+            solverManager.submit(SolverTestSupport.createProblem());
+            fail("The queue is full.");
+        } catch (RejectedExecutionException expected) {
+        }
+
+        assertTrue(solverManager.cancel(scheduledJob.getJobId()));
+        assertEquals(SolverJobStatus.CANCELLED, scheduledJob.getStatus());
+        assertNull(scheduledJob.getScore());
+        // The cancelled job no longer takes a place in the queue
+        val queuedJob = solverManager.submit(SolverTestSupport.createProblem());
+
+        awaitFinished(solvingJob);
+        assertEquals(SolverJobStatus.SOLVED, solvingJob.getStatus());
+        assertEquals(new CloudCapacityScoreCalculator().calculateScore(solvingJob.getBestSolution()), solvingJob.getScore());
+        assertFalse(solvingJob.getStatistics().getConstraintMatchCounts().isEmpty());
+
+        awaitSolving(queuedJob);
+        assertTrue(solverManager.cancel(queuedJob.getJobId()));
+        awaitFinished(queuedJob);
+        assertEquals(SolverJobStatus.CANCELLED, queuedJob.getStatus());
+        assertFalse(solverManager.cancel(queuedJob.getJobId()));
+
+        assertTrue(solverManager.remove(queuedJob.getJobId()));
+        assertFalse(solverManager.getSolverJob(queuedJob.getJobId()).isPresent());
+    }
+
+    @Test
+    public void evictOldestFinishedJobs() throws InterruptedException {
+
+        val firstJob = solverManager.submit(SolverTestSupport.createProblem());
+        val secondJob = solverManager.submit(SolverTestSupport.createProblem());
+        assertTrue(solverManager.cancel(secondJob.getJobId()));
+        assertTrue(solverManager.cancel(firstJob.getJobId()));
+        awaitFinished(firstJob);
+        assertTrue(solverManager.getSolverJob(firstJob.getJobId()).isPresent());
+
+        val thirdJob = solverManager.submit(SolverTestSupport.createProblem());
+        assertTrue(solverManager.cancel(thirdJob.getJobId()));
+        awaitFinished(thirdJob);
+        assertFalse(solverManager.getSolverJob(firstJob.getJobId()).isPresent());
+        assertTrue(solverManager.getSolverJob(secondJob.getJobId()).isPresent());
+        assertTrue(solverManager.getSolverJob(thirdJob.getJobId()).isPresent());
+    }
+
+    @Test
+    public void failOnError() throws InterruptedException {
+
+        SolverFactory<ClusterBalance> solverFactory = SolverTestSupport.quickSolverFactory();
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig();
+        scoreDirectorFactoryConfig.setEasyScoreCalculatorClass(ErrorScoreCalculator.class);
+        solverFactory.getSolverConfig().setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        val failingSolverManager = new ClusterBalanceSolverManager(solverFactory, 1, 1, 2, publisherExecutor, 100L,
+                new SolverMetrics(new SimpleMeterRegistry()));
+        try {
+            val solverJob = failingSolverManager.submit(SolverTestSupport.createProblem());
+            awaitFinished(solverJob);
+            assertEquals(SolverJobStatus.FAILED, solverJob.getStatus());
+            assertEquals(ErrorScoreCalculator.MESSAGE, solverJob.getErrorMessage());
+        } finally {
+            failingSolverManager.terminate();
+        }
+    }
+
+    public static class ErrorScoreCalculator implements EasyScoreCalculator<ClusterBalance> {
+
+        static final String MESSAGE = "Not a RuntimeException";
+
+        @Override
+        public HardMediumSoftLongScore calculateScore(ClusterBalance clusterBalance) {
+            throw new AssertionError(MESSAGE);
+        }
+    }
+
+    private static void awaitSolving(SolverJob solverJob) throws InterruptedException {
+        for (int i = 0; i < 100 && solverJob.getStatus() == SolverJobStatus.SCHEDULED; i++) {
+            Thread.sleep(50L);
+        }
+        assertEquals(SolverJobStatus.SOLVING, solverJob.getStatus());
+    }
+
+    private static void awaitFinished(SolverJob solverJob) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        solverJob.addFinishedConsumer(job -> finished.countDown());
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+}
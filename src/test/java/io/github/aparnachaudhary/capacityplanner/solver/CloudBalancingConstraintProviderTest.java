@@ -0,0 +1,85 @@
+package io.github.aparnachaudhary.capacityplanner.solver;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalanceConstraintConfiguration;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import lombok.val;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.score.director.ScoreDirectorFactory;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class CloudBalancingConstraintProviderTest {
+
+    @Test
+    public void constraintStreamScoreMatchesCloudCapacityScore() {
+
+        ScoreDirectorFactory<ClusterBalance> scoreDirectorFactory = buildConstraintStreamScoreDirectorFactory();
+        val easyScoreCalculator = new CloudCapacityScoreCalculator();
+
+        for (long seed = 0L; seed < 20L; seed++) {
+            val generator = new ClusterBalanceGenerator(seed);
+            ClusterBalance clusterBalance = generator.createClusterBalance(9 + (int) seed, 100 + 10 * (int) seed);
+            generator.assignRandomly(clusterBalance);
+
+            try (ScoreDirector<ClusterBalance> scoreDirector = scoreDirectorFactory.buildScoreDirector()) {
+                scoreDirector.setWorkingSolution(clusterBalance);
+                assertEquals("Seed " + seed, easyScoreCalculator.calculateScore(clusterBalance), scoreDirector.calculateScore());
+            }
+        }
+    }
+
+    @Test
+    public void constraintWeightsMatchCloudCapacityScore() {
+
+        ScoreDirectorFactory<ClusterBalance> constraintStreamScoreDirectorFactory = buildConstraintStreamScoreDirectorFactory();
+        ScoreDirectorFactory<ClusterBalance> droolsScoreDirectorFactory = SolverFactory.<ClusterBalance>createFromXmlResource("solver/test-constraint-solver.xml")
+                .buildSolver().getScoreDirectorFactory();
+        val easyScoreCalculator = new CloudCapacityScoreCalculator();
+
+        for (long seed = 0L; seed < 5L; seed++) {
+            val generator = new ClusterBalanceGenerator(seed);
+            ClusterBalance clusterBalance = generator.createClusterBalance(9 + (int) seed, 100 + 10 * (int) seed);
+            generator.assignRandomly(clusterBalance);
+            clusterBalance.getClusterProcesses().get(0).setClusterNode(null);
+            // Every third process ran on the first node of its value range
+            for (int i = 0; i < clusterBalance.getClusterProcesses().size(); i += 3) {
+                ClusterProcess process = clusterBalance.getClusterProcesses().get(i);
+                process.setOriginalClusterNode(process.getCompatibleClusterNodes().get(0));
+            }
+
+            val constraintConfiguration = new ClusterBalanceConstraintConfiguration();
+            constraintConfiguration.setClusterNodeCapacity(HardMediumSoftLongScore.of(2L, 0L, 0L));
+            constraintConfiguration.setNodeTypeCapacity(HardMediumSoftLongScore.ZERO);
+            constraintConfiguration.setWrongNodeType(HardMediumSoftLongScore.of(1L, 1L, 0L));
+            constraintConfiguration.setNotAssigned(HardMediumSoftLongScore.of(0L, 4L, 0L));
+            constraintConfiguration.setClusterNodeCost(HardMediumSoftLongScore.ZERO);
+            constraintConfiguration.setProcessMigration(HardMediumSoftLongScore.of(0L, 0L, 3L));
+            constraintConfiguration.setMaximumMigrationCount(seed % 2L == 0L ? (int) seed : null);
+            clusterBalance.setConstraintConfiguration(constraintConfiguration);
+
+            HardMediumSoftLongScore expectedScore = easyScoreCalculator.calculateScore(clusterBalance);
+            for (ScoreDirectorFactory<ClusterBalance> scoreDirectorFactory : Arrays.asList(constraintStreamScoreDirectorFactory, droolsScoreDirectorFactory)) {
+                try (ScoreDirector<ClusterBalance> scoreDirector = scoreDirectorFactory.buildScoreDirector()) {
+                    scoreDirector.setWorkingSolution(clusterBalance);
+                    assertEquals("Seed " + seed, expectedScore, scoreDirector.calculateScore());
+                }
+            }
+        }
+    }
+
+    private ScoreDirectorFactory<ClusterBalance> buildConstraintStreamScoreDirectorFactory() {
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource("solver/capacity-planning-solver-config.xml");
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig();
+        scoreDirectorFactoryConfig.setConstraintProviderClass(CloudBalancingConstraintProvider.class);
+        solverFactory.getSolverConfig().setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        return solverFactory.buildSolver().getScoreDirectorFactory();
+    }
+}
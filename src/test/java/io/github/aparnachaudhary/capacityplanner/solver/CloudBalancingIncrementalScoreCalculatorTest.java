@@ -0,0 +1,175 @@
+package io.github.aparnachaudhary.capacityplanner.solver;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalanceConstraintConfiguration;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import lombok.val;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.score.constraint.Indictment;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.impl.score.director.InnerScoreDirectorFactory;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CloudBalancingIncrementalScoreCalculatorTest {
+
+    @Test
+    public void incrementalScoreMatchesCloudCapacityScore() {
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance clusterBalance = generator.createClusterBalance(18, 200);
+        generator.assignRandomly(clusterBalance);
+
+        val easyScoreCalculator = new CloudCapacityScoreCalculator();
+        try (ScoreDirector<ClusterBalance> scoreDirector = buildIncrementalScoreDirector()) {
+            scoreDirector.setWorkingSolution(clusterBalance);
+            assertEquals(easyScoreCalculator.calculateScore(clusterBalance), scoreDirector.calculateScore());
+
+            Random random = new Random(37L);
+            List<ClusterNode> clusterNodes = clusterBalance.getClusterNodes();
+            for (int i = 0; i < 1000; i++) {
+                ClusterProcess process = clusterBalance.getClusterProcesses().get(random.nextInt(clusterBalance.getClusterProcesses().size()));
+                int nodeIndex = random.nextInt(clusterNodes.size() + 1);
+                scoreDirector.beforeVariableChanged(process, "clusterNode");
+                process.setClusterNode(nodeIndex == clusterNodes.size() ? null : clusterNodes.get(nodeIndex));
+                scoreDirector.afterVariableChanged(process, "clusterNode");
+                scoreDirector.triggerVariableListeners();
+                assertEquals("After move " + i, easyScoreCalculator.calculateScore(clusterBalance), scoreDirector.calculateScore());
+            }
+        }
+    }
+
+    @Test
+    public void constraintMatchTotalsAddUpToScore() {
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance clusterBalance = generator.createClusterBalance(18, 200);
+        generator.assignRandomly(clusterBalance);
+        clusterBalance.getClusterProcesses().get(0).setClusterNode(null);
+
+        try (ScoreDirector<ClusterBalance> scoreDirector = buildIncrementalScoreDirector(true)) {
+            scoreDirector.setWorkingSolution(clusterBalance);
+            HardMediumSoftLongScore score = (HardMediumSoftLongScore) scoreDirector.calculateScore();
+
+            HardMediumSoftLongScore constraintMatchScore = HardMediumSoftLongScore.ZERO;
+            for (ConstraintMatchTotal constraintMatchTotal : scoreDirector.getConstraintMatchTotals()) {
+                constraintMatchScore = constraintMatchScore.add((HardMediumSoftLongScore) constraintMatchTotal.getScore());
+            }
+            assertEquals(score, constraintMatchScore);
+            assertTrue(scoreDirector.getConstraintMatchTotals().stream()
+                    .anyMatch(constraintMatchTotal -> constraintMatchTotal.getConstraintName().equals("Not Assigned")
+                            && constraintMatchTotal.getConstraintMatchCount() >= 1));
+
+            // Every process, node, AZ and node type in a match is indicted
+            HardMediumSoftLongScore processIndictmentScore = HardMediumSoftLongScore.ZERO;
+            for (ClusterProcess process : clusterBalance.getClusterProcesses()) {
+                Indictment indictment = scoreDirector.getIndictmentMap().get(process);
+                if (indictment != null) {
+                    processIndictmentScore = processIndictmentScore.add((HardMediumSoftLongScore) indictment.getScore());
+                }
+            }
+            assertEquals(score.getMediumScore(), processIndictmentScore.getMediumScore());
+        }
+    }
+
+    @Test
+    public void largeResourcesDoNotOverflow() {
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance clusterBalance = generator.createClusterBalance(18, 1000);
+        // Memory in MB: the difficulty index of every process (64 * 65536 * 4096 = 2^34) exceeds an int
+        clusterBalance.getClusterProcesses().forEach(process -> process.setUsage(
+                new long[]{64L, 65536L, 4096L, 0L, 0L, 0L, 0L}));
+        clusterBalance.getClusterNodes().forEach(clusterNode -> clusterNode.setCost(3_000_000_000L));
+        clusterBalance.getClusterProcesses().get(0).setClusterNode(clusterBalance.getClusterProcesses().get(0).getCompatibleClusterNodes().get(0));
+
+        try (ScoreDirector<ClusterBalance> scoreDirector = buildIncrementalScoreDirector()) {
+            scoreDirector.setWorkingSolution(clusterBalance);
+            HardMediumSoftLongScore score = (HardMediumSoftLongScore) scoreDirector.calculateScore();
+            assertEquals(new CloudCapacityScoreCalculator().calculateScore(clusterBalance), score);
+            assertEquals(-999L * (1L << 34), score.getMediumScore());
+            assertEquals(-3_000_000_000L, score.getSoftScore());
+        }
+    }
+
+    @Test
+    public void constraintWeightsAreApplied() {
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance clusterBalance = generator.createClusterBalance(18, 200);
+        generator.assignRandomly(clusterBalance);
+        clusterBalance.getClusterProcesses().get(0).setClusterNode(null);
+
+        val constraintConfiguration = new ClusterBalanceConstraintConfiguration();
+        constraintConfiguration.setClusterNodeCapacity(HardMediumSoftLongScore.ZERO);
+        constraintConfiguration.setAvailabilityZoneCapacity(HardMediumSoftLongScore.of(3L, 0L, 0L));
+        constraintConfiguration.setNodeTypeCapacity(HardMediumSoftLongScore.ZERO);
+        constraintConfiguration.setWrongAvailabilityZone(HardMediumSoftLongScore.of(0L, 2L, 0L));
+        constraintConfiguration.setNotAssigned(HardMediumSoftLongScore.ZERO);
+        constraintConfiguration.setClusterNodeCost(HardMediumSoftLongScore.of(0L, 0L, 5L));
+        constraintConfiguration.setProcessMigration(HardMediumSoftLongScore.of(0L, 0L, 100L));
+        constraintConfiguration.setMaximumMigrationCount(10);
+        clusterBalance.setConstraintConfiguration(constraintConfiguration);
+        // The random assignment is what is running
+        clusterBalance.getClusterProcesses().forEach(process -> process.setOriginalClusterNode(process.getClusterNode()));
+
+        val easyScoreCalculator = new CloudCapacityScoreCalculator();
+        try (ScoreDirector<ClusterBalance> scoreDirector = buildIncrementalScoreDirector(true)) {
+            scoreDirector.setWorkingSolution(clusterBalance);
+            assertEquals(easyScoreCalculator.calculateScore(clusterBalance), scoreDirector.calculateScore());
+
+            Random random = new Random(37L);
+            List<ClusterNode> clusterNodes = clusterBalance.getClusterNodes();
+            for (int i = 0; i < 200; i++) {
+                ClusterProcess process = clusterBalance.getClusterProcesses().get(random.nextInt(clusterBalance.getClusterProcesses().size()));
+                int nodeIndex = random.nextInt(clusterNodes.size() + 1);
+                scoreDirector.beforeVariableChanged(process, "clusterNode");
+                process.setClusterNode(nodeIndex == clusterNodes.size() ? null : clusterNodes.get(nodeIndex));
+                scoreDirector.afterVariableChanged(process, "clusterNode");
+                scoreDirector.triggerVariableListeners();
+                assertEquals("After move " + i, easyScoreCalculator.calculateScore(clusterBalance), scoreDirector.calculateScore());
+            }
+
+            assertTrue(scoreDirector.getConstraintMatchTotals().stream()
+                    .anyMatch(constraintMatchTotal -> constraintMatchTotal.getConstraintName().equals(ClusterBalanceConstraintConfiguration.MAXIMUM_MIGRATIONS)));
+
+            // A zero weight disables the constraint
+            assertTrue(scoreDirector.getConstraintMatchTotals().stream()
+                    .noneMatch(constraintMatchTotal -> constraintMatchTotal.getConstraintName().equals(ClusterBalanceConstraintConfiguration.NOT_ASSIGNED)
+                            || constraintMatchTotal.getConstraintName().equals(ClusterBalanceConstraintConfiguration.CLUSTER_NODE_CAPACITY)
+                            || constraintMatchTotal.getConstraintName().equals(ClusterBalanceConstraintConfiguration.NODE_TYPE_CAPACITY)));
+            assertTrue(scoreDirector.getConstraintMatchTotals().stream()
+                    .filter(constraintMatchTotal -> constraintMatchTotal.getConstraintName().equals(ClusterBalanceConstraintConfiguration.WRONG_AVAILABILITY_ZONE))
+                    .allMatch(constraintMatchTotal -> ((HardMediumSoftLongScore) constraintMatchTotal.getScore()).getMediumScore() < 0L
+                            && ((HardMediumSoftLongScore) constraintMatchTotal.getScore()).getHardScore() == 0L));
+
+            // New weights take effect after a problem fact change
+            clusterBalance.setConstraintConfiguration(new ClusterBalanceConstraintConfiguration());
+            scoreDirector.setWorkingSolution(clusterBalance);
+            assertEquals(easyScoreCalculator.calculateScore(clusterBalance), scoreDirector.calculateScore());
+        }
+    }
+
+    private ScoreDirector<ClusterBalance> buildIncrementalScoreDirector() {
+        return buildIncrementalScoreDirector(false);
+    }
+
+    private ScoreDirector<ClusterBalance> buildIncrementalScoreDirector(boolean constraintMatchEnabled) {
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource("solver/capacity-planning-solver-config.xml");
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig();
+        scoreDirectorFactoryConfig.setIncrementalScoreCalculatorClass(CloudBalancingIncrementalScoreCalculator.class);
+        solverFactory.getSolverConfig().setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        return ((InnerScoreDirectorFactory<ClusterBalance>) solverFactory.buildSolver().getScoreDirectorFactory())
+                .buildScoreDirector(false, constraintMatchEnabled);
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.aparnachaudhary.capacityplanner.solver;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import lombok.val;
+import org.junit.Test;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.Assert.*;
+
+public class ClusterBalancePartitionerTest {
+
+    private static final String PARTITIONED_SOLVER_CONFIG = "solver/capacity-planning-partitioned-solver-config.xml";
+
+    @Test
+    public void splitPerAvailabilityZoneAndNodeType() {
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance clusterBalance = generator.createClusterBalance(200);
+        generator.assignRandomly(clusterBalance);
+
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource(PARTITIONED_SOLVER_CONFIG);
+        List<ClusterBalance> parts;
+        try (ScoreDirector<ClusterBalance> scoreDirector = solverFactory.buildSolver().getScoreDirectorFactory().buildScoreDirector()) {
+            scoreDirector.setWorkingSolution(clusterBalance);
+            parts = new ClusterBalancePartitioner().splitWorkingSolution(scoreDirector, null);
+        }
+
+        assertEquals(9, parts.size());
+        assertEquals(clusterBalance.getClusterNodes().size(), parts.stream().mapToInt(part -> part.getClusterNodes().size()).sum());
+        assertEquals(clusterBalance.getClusterProcesses().size(), parts.stream().mapToInt(part -> part.getClusterProcesses().size()).sum());
+        for (ClusterBalance part : parts) {
+            ClusterProcess firstProcess = part.getClusterProcesses().get(0);
+            part.getClusterNodes().forEach(clusterNode -> {
+                assertEquals(firstProcess.getAvailabilityZone(), clusterNode.getAvailabilityZone());
+                assertEquals(firstProcess.getClusterNodeType(), clusterNode.getClusterNodeType());
+            });
+            part.getClusterProcesses().forEach(process -> {
+                assertEquals(firstProcess.getAvailabilityZone(), process.getAvailabilityZone());
+                assertEquals(firstProcess.getClusterNodeType(), process.getClusterNodeType());
+                assertFalse(clusterBalance.getClusterProcesses().stream().anyMatch(original -> original == process));
+                assertTrue(process.getClusterNode() == null || part.getClusterNodes().contains(process.getClusterNode()));
+            });
+        }
+    }
+
+    @Test
+    public void solvePartitioned() {
+
+        ClusterBalance problem = new ClusterBalanceGenerator(37L).createClusterBalance(200);
+
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource(PARTITIONED_SOLVER_CONFIG);
+        solverFactory.getSolverConfig().setEnvironmentMode(EnvironmentMode.FAST_ASSERT);
+        TerminationConfig terminationConfig = new TerminationConfig();
+        terminationConfig.setSecondsSpentLimit(5L);
+        solverFactory.getSolverConfig().setTerminationConfig(terminationConfig);
+
+        val solution = solverFactory.buildSolver().solve(problem);
+
+        assertTrue(solution.getScore().isSolutionInitialized());
+        assertEquals(0, solution.getScore().getHardScore());
+        assertEquals(new CloudCapacityScoreCalculator().calculateScore(solution), solution.getScore());
+    }
+
+    @Test
+    public void splitMaximumMigrationCount() {
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance clusterBalance = generator.createClusterBalance(200);
+        generator.assignRandomly(clusterBalance);
+        clusterBalance.getClusterProcesses().forEach(process -> process.setOriginalClusterNode(process.getClusterNode()));
+        clusterBalance.getConstraintConfiguration().setMaximumMigrationCount(10);
+
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource(PARTITIONED_SOLVER_CONFIG);
+        List<ClusterBalance> parts;
+        try (ScoreDirector<ClusterBalance> scoreDirector = solverFactory.buildSolver().getScoreDirectorFactory().buildScoreDirector()) {
+            scoreDirector.setWorkingSolution(clusterBalance);
+            parts = new ClusterBalancePartitioner().splitWorkingSolution(scoreDirector, null);
+        }
+
+        assertEquals(10, parts.stream().mapToInt(part -> part.getConstraintConfiguration().getMaximumMigrationCount()).sum());
+        for (ClusterBalance part : parts) {
+            assertNotSame(clusterBalance.getConstraintConfiguration(), part.getConstraintConfiguration());
+            // Every part has about a ninth of the processes, so about a ninth of the migrations
+            assertTrue(part.getConstraintConfiguration().getMaximumMigrationCount() <= 2);
+            assertEquals(clusterBalance.getConstraintConfiguration().getProcessMigration(),
+                    part.getConstraintConfiguration().getProcessMigration());
+        }
+        assertEquals(10, clusterBalance.getConstraintConfiguration().getMaximumMigrationCount().intValue());
+    }
+
+    @Test
+    public void solvePartitionedWithMaximumMigrationCount() {
+
+        ClusterBalance problem = SolverTestSupport.quickSolverFactory().buildSolver().solve(new ClusterBalanceGenerator(37L).createClusterBalance(90, 100));
+        assertEquals(0, problem.getScore().getHardScore());
+        // The running plan becomes expensive, so the parts would rather migrate than stay
+        problem.getClusterProcesses().forEach(process -> process.setOriginalClusterNode(process.getClusterNode()));
+        problem.getClusterProcesses().stream()
+                .map(ClusterProcess::getClusterNode)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(clusterNode -> clusterNode.setCost(clusterNode.getCost() * 10L));
+        problem.getConstraintConfiguration().setMaximumMigrationCount(5);
+
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource(PARTITIONED_SOLVER_CONFIG);
+        TerminationConfig terminationConfig = new TerminationConfig();
+        terminationConfig.setSecondsSpentLimit(5L);
+        solverFactory.getSolverConfig().setTerminationConfig(terminationConfig);
+
+        val solution = solverFactory.buildSolver().solve(problem);
+
+        assertTrue(solution.getClusterProcesses().stream().filter(ClusterProcess::isMigrated).count() <= 5L);
+        assertEquals(new CloudCapacityScoreCalculator().calculateScore(solution), solution.getScore());
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.aparnachaudhary.capacityplanner.solver;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.AvailabilityZone;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNodeType;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.domain.Resource;
+import org.junit.Test;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicType;
+import org.optaplanner.core.config.phase.PhaseConfig;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ConstructionHeuristicTest {
+
+    @Test
+    public void configuredPlacerAssignsLikeFirstFitDecreasing() {
+
+        PhaseConfig configuredConstructionHeuristic = SolverTestSupport.solverFactory().getSolverConfig().getPhaseConfigList().get(0);
+        assertTrue(configuredConstructionHeuristic instanceof ConstructionHeuristicPhaseConfig);
+
+        // Every node costs the same, so the first node tried wins the tie: first fit tries the largest (listed first),
+        // weakest fit the smallest
+        assertEquals(Arrays.asList(0L, 0L), solveAssignment(configuredConstructionHeuristic));
+        assertEquals(Arrays.asList(0L, 0L), solveAssignment(createConstructionHeuristic(ConstructionHeuristicType.FIRST_FIT_DECREASING)));
+        assertEquals(Arrays.asList(1L, 1L), solveAssignment(createConstructionHeuristic(ConstructionHeuristicType.WEAKEST_FIT_DECREASING)));
+    }
+
+    private static ConstructionHeuristicPhaseConfig createConstructionHeuristic(ConstructionHeuristicType constructionHeuristicType) {
+        ConstructionHeuristicPhaseConfig constructionHeuristic = new ConstructionHeuristicPhaseConfig();
+        constructionHeuristic.setConstructionHeuristicType(constructionHeuristicType);
+        return constructionHeuristic;
+    }
+
+    /**
+     * @return the cluster node id of every process, after the construction heuristic only
+     */
+    private static List<Long> solveAssignment(PhaseConfig constructionHeuristic) {
+        SolverFactory<ClusterBalance> solverFactory = SolverTestSupport.solverFactory();
+        solverFactory.getSolverConfig().setPhaseConfigList(Collections.singletonList(constructionHeuristic));
+        ClusterBalance solution = solverFactory.buildSolver().solve(createProblem());
+        return solution.getClusterProcesses().stream()
+                .map(process -> process.getClusterNode().getId())
+                .collect(Collectors.toList());
+    }
+
+    private static ClusterBalance createProblem() {
+        AvailabilityZone availabilityZone = AvailabilityZone.builder().id(0L).name("AZ1").build();
+        ClusterNodeType nodeType = ClusterNodeType.builder().id(0L).name("BROKER").build();
+        List<ClusterNode> clusterNodes = Arrays.asList(
+                createClusterNode(0L, availabilityZone, nodeType, 16),
+                createClusterNode(1L, availabilityZone, nodeType, 4),
+                createClusterNode(2L, availabilityZone, nodeType, 8));
+        List<ClusterProcess> processes = Arrays.asList(
+                createProcess(0L, availabilityZone, nodeType, 1),
+                createProcess(1L, availabilityZone, nodeType, 2));
+        ClusterBalance problem = ClusterBalance.builder()
+                .id(0L)
+                .clusterNodes(clusterNodes)
+                .clusterProcesses(processes)
+                .availabilityZones(Collections.singletonList(availabilityZone))
+                .nodeTypes(Collections.singletonList(nodeType))
+                .build();
+        problem.initializeDerivedData();
+        return problem;
+    }
+
+    private static ClusterNode createClusterNode(long id, AvailabilityZone availabilityZone, ClusterNodeType nodeType, long size) {
+        return ClusterNode.builder().id(id).name("node" + id)
+                .resource(Resource.CPU, size).resource(Resource.MEMORY, size).resource(Resource.DISK, size)
+                .cost(100L)
+                .availabilityZone(availabilityZone).clusterNodeType(nodeType)
+                .build();
+    }
+
+    private static ClusterProcess createProcess(long id, AvailabilityZone availabilityZone, ClusterNodeType nodeType, long size) {
+        return ClusterProcess.builder().id(id).name("process" + id)
+                .resource(Resource.CPU, size).resource(Resource.MEMORY, size).resource(Resource.DISK, size)
+                .availabilityZone(availabilityZone).clusterNodeType(nodeType)
+                .build();
+    }
+}
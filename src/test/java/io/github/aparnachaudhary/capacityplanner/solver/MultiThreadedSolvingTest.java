@@ -0,0 +1,82 @@
+package io.github.aparnachaudhary.capacityplanner.solver;
+
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import lombok.val;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class MultiThreadedSolvingTest {
+
+    @Test
+    public void solveWithMoveThreads() {
+
+        ClusterBalance problem = new ClusterBalanceGenerator(37L).createClusterBalance(200);
+
+        SolverFactory<ClusterBalance> solverFactory = SolverFactory.createFromXmlResource("solver/capacity-planning-solver-config.xml");
+        solverFactory.getSolverConfig().setMoveThreadCount("2");
+        // Also recalculates the score from scratch on every step, so a move rebased onto the wrong clone shows up
+        solverFactory.getSolverConfig().setEnvironmentMode(EnvironmentMode.FAST_ASSERT);
+        TerminationConfig terminationConfig = new TerminationConfig();
+        terminationConfig.setSecondsSpentLimit(5L);
+        solverFactory.getSolverConfig().setTerminationConfig(terminationConfig);
+
+        val solution = solverFactory.buildSolver().solve(problem);
+
+        assertTrue(solution.getScore().isSolutionInitialized());
+        assertEquals(new CloudCapacityScoreCalculator().calculateScore(solution), solution.getScore());
+        // Problem facts are shared by the clones, not deep cloned
+        assertSame(problem.getClusterNodes().get(0), solution.getClusterNodes().get(0));
+        solution.getClusterProcesses().stream()
+                .filter(process -> process.getClusterNode() != null)
+                .forEach(process -> assertTrue(problem.getClusterNodes().contains(process.getClusterNode())));
+    }
+
+    @Test
+    public void easyScoreCalculatorSharedByThreads() throws Exception {
+
+        // Like the score directors of the move threads, which share the calculator instance
+        val scoreCalculator = new CloudCapacityScoreCalculator();
+        List<ClusterBalance> solutions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            val generator = new ClusterBalanceGenerator(i);
+            ClusterBalance solution = generator.createClusterBalance(100 + 100 * i);
+            generator.assignRandomly(solution);
+            solutions.add(solution);
+        }
+        List<HardMediumSoftLongScore> expectedScores = solutions.stream()
+                .map(new CloudCapacityScoreCalculator()::calculateScore)
+                .collect(Collectors.toList());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(solutions.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < solutions.size(); i++) {
+                ClusterBalance solution = solutions.get(i);
+                HardMediumSoftLongScore expectedScore = expectedScores.get(i);
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        assertEquals(expectedScore, scoreCalculator.calculateScore(solution));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
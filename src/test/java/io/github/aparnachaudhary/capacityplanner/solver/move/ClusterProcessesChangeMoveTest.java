@@ -0,0 +1,66 @@
+package io.github.aparnachaudhary.capacityplanner.solver.move;
+
+import io.github.aparnachaudhary.capacityplanner.SolverTestSupport;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterBalance;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterNode;
+import io.github.aparnachaudhary.capacityplanner.domain.ClusterProcess;
+import io.github.aparnachaudhary.capacityplanner.generator.ClusterBalanceGenerator;
+import io.github.aparnachaudhary.capacityplanner.solver.CloudCapacityScoreCalculator;
+import lombok.val;
+import org.junit.Test;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.heuristic.selector.move.composite.UnionMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.ChangeMoveSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ClusterProcessesChangeMoveTest {
+
+    @Test
+    public void solveWithCustomMoves() {
+
+        val generator = new ClusterBalanceGenerator(37L);
+        ClusterBalance problem = generator.createClusterBalance(200);
+        generator.assignRandomly(problem);
+        Map<Long, ClusterNode> initialClusterNodeMap = new HashMap<>();
+        for (int i = 0; i < problem.getClusterProcesses().size(); i++) {
+            ClusterProcess process = problem.getClusterProcesses().get(i);
+            process.setPinned(i % 10 == 0);
+            initialClusterNodeMap.put(process.getId(), process.getClusterNode());
+        }
+
+        SolverFactory<ClusterBalance> solverFactory = SolverTestSupport.solverFactory();
+        // Only the custom moves, every undo move and incremental score is checked against a score from scratch
+        val localSearchPhaseConfig = (LocalSearchPhaseConfig) solverFactory.getSolverConfig().getPhaseConfigList().get(1);
+        val unionMoveSelectorConfig = (UnionMoveSelectorConfig) localSearchPhaseConfig.getMoveSelectorConfig();
+        unionMoveSelectorConfig.setMoveSelectorConfigList(unionMoveSelectorConfig.getMoveSelectorConfigList().stream()
+                .filter(moveSelectorConfig -> !(moveSelectorConfig instanceof ChangeMoveSelectorConfig))
+                .collect(Collectors.toList()));
+        solverFactory.getSolverConfig().setEnvironmentMode(EnvironmentMode.FULL_ASSERT);
+        TerminationConfig terminationConfig = new TerminationConfig();
+        terminationConfig.setStepCountLimit(500);
+        localSearchPhaseConfig.setTerminationConfig(terminationConfig);
+
+        val solution = solverFactory.buildSolver().solve(problem);
+
+        assertEquals(new CloudCapacityScoreCalculator().calculateScore(solution), solution.getScore());
+        int movedCount = 0;
+        for (ClusterProcess process : solution.getClusterProcesses()) {
+            ClusterNode initialClusterNode = initialClusterNodeMap.get(process.getId());
+            if (process.getClusterNode() != initialClusterNode) {
+                assertFalse(process.isPinned());
+                // Random assignments outside the value range are left to the change moves
+                assertTrue(process.getCompatibleClusterNodes().contains(process.getClusterNode()));
+                movedCount++;
+            }
+        }
+        assertTrue(movedCount > 0);
+    }
+}